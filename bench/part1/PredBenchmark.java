@@ -0,0 +1,122 @@
+package part1;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmarks of pred for the algorithms in part 1. Unlike Mark8Setup in Experiment,
+ * every combination of the parameters runs in its own forked JVMs with its own warmup,
+ * so the JIT profile of one sbst never leaks into the measurement of another.
+ * Throughput, average time and sampled latency are all reported per query.
+ * The unit is nanoseconds, so the throughput in ops/ns reads better with -tu us.
+ *
+ * The defaults are a single n, alpha and two workloads in one fork, which takes about twenty
+ * minutes. More forks, e.g. -f 3, give a better estimate of the variance between JVMs.
+ * The parameters can be changed from the command line, e.g. the full sweep is
+ * -p n=100000,1000000,10000000 -p alpha=0.4,0.75 -p workload=uniform,zipf1.0,hotspot,sequential,
+ * which takes several hours.
+ * The algos use the same shorthands as Experiment: sa, st, sc, oa, ea, ve, ka, co,
+ * and bo, which is not run by default as it needs -XX:MaxDirectMemorySize for large n.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PredBenchmark {
+
+    // a power of 2, so the next query is found with a mask
+    private static final int Q = 1 << 20;
+
+    @Param({"sa", "st", "sc", "oa", "ea", "ve", "ka", "co"})
+    public String algo;
+
+    @Param({"1000000"})
+    public int n;
+
+    @Param({"0.4"})
+    public double alpha;
+
+    @Param({"21"})
+    public int p;
+
+    @Param({"uniform", "zipf1.0"})
+    public String workload;
+
+    @Param({"7"})
+    public long seed;
+
+    private SkewedBST sbst;
+    private int[] queries;
+    private int[] out;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        Generator gen = new Generator(seed);
+        int[] set = gen.generateSortedSet(n);
+        if (workload.startsWith("zipf")) {
+            queries = gen.generateZipfQueries(Q, Double.parseDouble(workload.substring(4)));
+        } else if (workload.equals("hotspot")) {
+            queries = gen.generateHotspotQueries(Q, 1000, 0.9);
+        } else if (workload.equals("sequential")) {
+            queries = gen.generateSequentialQueries(Q, n);
+        } else if (workload.equals("uniform")) {
+            queries = gen.generateQueries(Q);
+        } else {
+            throw new IllegalArgumentException(workload + " is not a workload");
+        }
+        sbst = makeSBST(set);
+        out = new int[Q];
+    }
+
+    private SkewedBST makeSBST(int[] set){
+        switch (algo) {
+            case "sa": return new SortedArray(set, alpha);
+            case "st": return new SearchTree(set, alpha);
+            case "sc": return new SearchTree(set, alpha, true);
+            case "oa": return new OtherArray(set, alpha, p);
+            case "ea": return new EytzingerArray(set, alpha);
+            case "ve": return OtherArray.vanEmdeBoas(set, alpha);
+            case "ka": return new KaryArray(set, alpha, 16);
+            case "co": return new CompressedArray(set, alpha);
+            case "bo": return new BigOtherArray(set, alpha, p, true);
+            default: throw new IllegalArgumentException(algo + " is not an algo");
+        }
+    }
+
+    /**
+     * One query per operation, the queries are taken in order and wrap around.
+     */
+    @Benchmark
+    public void pred(Blackhole bh){
+        int i = next;
+        next = (i + 1) & (Q - 1);
+        bh.consume(sbst.pred(queries[i]));
+    }
+
+    /**
+     * All the queries through the bulk pred, reported per query.
+     */
+    @Benchmark
+    @OperationsPerInvocation(Q)
+    public void predBulk(Blackhole bh){
+        sbst.pred(queries, out);
+        bh.consume(out);
+    }
+}
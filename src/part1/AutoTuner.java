@@ -0,0 +1,97 @@
+package part1;
+
+import java.util.Arrays;
+
+/**
+ * Picks the Skewed Binary Search Tree (sbst) that answers a given workload the
+ * fastest on the machine it runs on. The candidates are SortedArray, SearchTree
+ * and OtherArray over a range of alphas and, for OtherArray, of p. Each candidate
+ * is built from the key set and timed on a sample of the real queries, so the
+ * choice follows both the hardware and the distribution of keys and queries.
+ *
+ * Trying every alpha together with every p would build |ALPHAS| * |PS| OtherArrays,
+ * so the search is done one coordinate at a time: first the best alpha of each
+ * layout with p = 21, then the best p of OtherArray at its best alpha.
+ */
+public class AutoTuner {
+
+    static final double[] ALPHAS = {0.2, 0.3, 0.4, 0.5, 0.6, 0.7, 0.8};
+    static final int[] PS = {1, 6, 11, 16, 21, 26, 31};
+    private static final int START_P = 21;
+
+    // the number of timed runs over the sample, the fastest one is used
+    private static final int ROUNDS = 3;
+
+    /**
+     * The fastest configuration found, with the sbst already built.
+     */
+    public static class Result {
+        public final SkewedBST sbst;
+        public final double alpha;
+        // the p of OtherArray, 0 for the other layouts
+        public final int p;
+        public final double nsPerQuery;
+
+        Result(SkewedBST sbst, double alpha, int p, double nsPerQuery){
+            this.sbst = sbst;
+            this.alpha = alpha;
+            this.p = p;
+            this.nsPerQuery = nsPerQuery;
+        }
+
+        @Override
+        public String toString(){
+            return String.format("%s alpha=%.2f p=%d %.1fns/query", sbst.name(), alpha, p, nsPerQuery);
+        }
+    }
+
+    /**
+     * Times all the candidates on the sample and returns the fastest.
+     * @param elems the elements to be added, they are sorted in place and shared
+     * by the candidates like the constructors of the sbsts do.
+     * @param sample a sample of the queries the sbst is going to answer, a few
+     * hundred thousand queries give stable timings.
+     * @return the fastest configuration, built.
+     */
+    public static Result tune(int[] elems, int[] sample){
+        if (sample.length == 0) throw new IllegalArgumentException("the sample has to contain queries");
+        Arrays.parallelSort(elems);
+        int[] out = new int[sample.length];
+
+        Result best = null;
+        for (double alpha : ALPHAS) {
+            best = faster(best, trial(new SortedArray(elems, alpha), alpha, 0, sample, out));
+            best = faster(best, trial(new SearchTree(elems, alpha), alpha, 0, sample, out));
+        }
+
+        Result oa = null;
+        for (double alpha : ALPHAS) {
+            oa = faster(oa, trial(new OtherArray(elems, alpha, START_P), alpha, START_P, sample, out));
+        }
+        double alpha = oa.alpha;
+        for (int p : PS) {
+            if (p == START_P) continue;
+            oa = faster(oa, trial(new OtherArray(elems, alpha, p), alpha, p, sample, out));
+        }
+        return faster(best, oa);
+    }
+
+    private static Result faster(Result a, Result b){
+        return a == null || b.nsPerQuery < a.nsPerQuery ? b : a;
+    }
+
+    /**
+     * Answers the sample once to warm up, and then ROUNDS times with the bulk pred.
+     * @return the candidate with the time per query of its fastest round.
+     */
+    private static Result trial(SkewedBST sbst, double alpha, int p, int[] sample, int[] out){
+        sbst.pred(sample, out);
+        long fastest = Long.MAX_VALUE;
+        for (int r = 0; r < ROUNDS; r++) {
+            long start = System.nanoTime();
+            sbst.pred(sample, out);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        return new Result(sbst, alpha, p, (double) fastest / sample.length);
+    }
+}
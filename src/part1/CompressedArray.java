@@ -0,0 +1,181 @@
+package part1;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of a Skewed Binary Search Tree over a compressed sorted array. The
+ * sorted keys are split into blocks that each fill one 64 byte cache line. A block
+ * stores its first key, the base, in an uncompressed directory, and the other keys
+ * as bit-packed deltas from the base, all with the width of the largest delta. A
+ * block takes as many keys as fit in the line, so the closer the keys are the more
+ * keys share a line, e.g. about 50 keys when the keys are 8 apart.
+ *
+ * pred searches the directory with the skewed binary search of SortedArray to find
+ * the block, and then binary searches the deltas of that one line.
+ *
+ * A line is 16 ints, the first holding the number of keys of the block and the
+ * width of the deltas, and the other 15 (480 bits) the deltas, key i of the block
+ * at bit (i - 1) * width.
+ */
+public class CompressedArray implements SkewedBST {
+
+    private static final int LINE = 16;
+    private static final int BITS = 32 * (LINE - 1);
+
+    final double alpha;
+    int[] bases;
+    int[] lines;
+    int n;
+    int min;
+    int max;
+
+    /**
+     * Initializes a CompressedArray, all building occurs in the constructor.
+     * @param elems the elements to be added.
+     * @param alpha decides how skewed the search of the directory is going to be.
+     */
+    public CompressedArray(int[] elems, double alpha){
+        Arrays.parallelSort(elems);
+        this.alpha = alpha;
+        n = elems.length;
+        min = elems[0];
+        max = elems[n - 1];
+        build(elems);
+    }
+
+    /**
+     * Fills the blocks greedily, a block takes the next key as long as the deltas,
+     * at the width of the new largest delta, still fit in the line.
+     * @param S the sorted set.
+     */
+    private void build(int[] S){
+        int[] bs = new int[16];
+        int[] ls = new int[16 * LINE + 1];
+        int m = 0;
+        for (int i = 0; i < S.length; ) {
+            int base = S[i];
+            int count = 1, width = 1;
+            while (i + count < S.length) {
+                int w = width(S[i + count] - (long) base);
+                if (count * Math.max(w, width) > BITS) break;
+                width = Math.max(w, width);
+                count++;
+            }
+
+            if (m == bs.length) {
+                bs = Arrays.copyOf(bs, 2 * m);
+                ls = Arrays.copyOf(ls, 2 * m * LINE + 1);
+            }
+            bs[m] = base;
+            int line = m * LINE;
+            ls[line] = count << 6 | width;
+            for (int j = 1; j < count; j++) {
+                long delta = S[i + j] - (long) base;
+                long bit = (long) (j - 1) * width;
+                int word = line + 1 + (int) (bit >>> 5);
+                int shift = (int) (bit & 31);
+                ls[word] |= (int) (delta << shift);
+                if (shift + width > 32) ls[word + 1] |= (int) (delta >>> (32 - shift));
+            }
+            m++;
+            i += count;
+        }
+        bases = Arrays.copyOf(bs, m);
+        // one more int, so the last delta of the last line can be read as two ints
+        lines = Arrays.copyOf(ls, m * LINE + 1);
+    }
+
+    /**
+     * @return the number of bits needed for the delta, at least 1.
+     */
+    private static int width(long delta){
+        return Math.max(1, 64 - Long.numberOfLeadingZeros(delta));
+    }
+
+    /**
+     * Finds and returns the value y in the set such that y <= x.
+     * Worst case is O(log(n)), best case is O(1) if x is outside
+     * the range of the set (not considering memory).
+     * @param x the value to be queried.
+     * @return the value if there is one, if not NONE.
+     */
+    public int pred(int x){
+        if (x < min) return NONE;
+        if (x >= max) return max;
+
+        // the last block whose base is <= x
+        int[] bases = this.bases;
+        int lo = 0;
+        int hi = bases.length - 1;
+        while (lo <= hi) {
+            int mid = (int)(lo + (hi - lo) * alpha);
+            if (x < bases[mid]) hi = mid - 1;
+            else lo = mid + 1;
+        }
+        int base = bases[hi];
+        return base + (int) search(hi * LINE, x - (long) base);
+    }
+
+    /**
+     * Binary searches the deltas of a line.
+     * @param line the index of the line in lines.
+     * @param d the query minus the base of the block, d >= 0.
+     * @return the largest delta <= d, 0 for the base itself.
+     */
+    private long search(int line, long d){
+        int[] lines = this.lines;
+        int meta = lines[line];
+        int width = meta & 63;
+        long mask = (1L << width) - 1;
+        int lo = 1, hi = (meta >>> 6) - 1;
+        long y = 0;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int bit = (mid - 1) * width;
+            int word = line + 1 + (bit >>> 5);
+            long two = (lines[word] & 0xFFFFFFFFL) | ((long) lines[word + 1] << 32);
+            long delta = (two >>> (bit & 31)) & mask;
+            if (d < delta) hi = mid - 1;
+            else {
+                y = delta;
+                lo = mid + 1;
+            }
+        }
+        return y;
+    }
+
+    /**
+     * Answers pred for the queries from index from to index to.
+     * @param queries the values to be queried.
+     * @param out where the answer to queries[i] is written to out[i].
+     * @param from the first query to answer, inclusive.
+     * @param to the last query to answer, exclusive.
+     */
+    public void pred(int[] queries, int[] out, int from, int to){
+        for (int i = from; i < to; i++) {
+            out[i] = pred(queries[i]);
+        }
+    }
+
+    /**
+     * @return the smallest value in the set.
+     */
+    public int min(){
+        return min;
+    }
+
+    /**
+     * @return the number of bytes of the directory and the lines.
+     */
+    public long bytes(){
+        return 4L * bases.length + 4L * lines.length;
+    }
+
+    public static void main(String[] args) {
+        double alpha = 0.4;
+        int threads = Runtime.getRuntime().availableProcessors();
+        InputReader.readInt();
+        CompressedArray st = new CompressedArray(InputReader.readElems(), alpha);
+        InputReader.runOp(st, threads);
+    }
+}
@@ -2,12 +2,21 @@ package part1;
 
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.Scanner;
 
+import javax.management.JMException;
+
 /**
  * For running experiments on the algorithms in part 1.
- * SortedArray, SearcTree & OtherArray.
+ * SortedArray, SearcTree (also compact), OtherArray (also van Emde Boas), EytzingerArray,
+ * KaryArray & CompressedArray, and the choice made by AutoTuner. Also with a PredCache in front under skewed
+ * workloads.
  */
 public class Experiment {
 
@@ -19,6 +28,10 @@ public class Experiment {
     private static int constantQ;
     private static double optimalA;
     private static long[] seeds;
+    // the number of forked JVMs and their CPUs when an experiment is run as a grid
+    private static int gridJobs = 0;
+    private static int[] gridCpus;
+    private static boolean gridFresh;
 
     public static void main(String[] args) {
         optimalP = 1; 
@@ -26,7 +39,8 @@ public class Experiment {
         repetition = 200;
         optimalA = 0.75;
         seeds = new long[]{7, 943, 57438};
-        startExp();
+        if (args.length == 8 && args[0].equals("job")) runJob(args);
+        else startExp();
     }
 
     /**
@@ -37,12 +51,18 @@ public class Experiment {
         Scanner input = new Scanner(System.in);
         System.err.println();
         System.err.printf("What experiment would you like to perform?%n");
-        System.err.printf("\tOptions: findOptimalP (fop), onlyAlpha (oa), compareAllAlgo (caa)%n%n");
+        System.err.printf("\tOptions: findOptimalP (fop), onlyAlpha (oa), compareAllAlgo (caa), batchSize (bs),%n");
+        System.err.printf("\t         updates (up), sortedBatch (sb), learnedSearch (ls),%n");
+        System.err.printf("\t         autoTune (at), skewedQueries (sq), compressed (co), grid (g)%n%n");
         System.err.printf("Please only specify one of these options: ");
         String cmd = input.nextLine();
         System.err.println();
         gen = new Generator(10);
 
+        if (cmd.contains("grid") || cmd.equals("g")) {
+            cmd = gridPrompt(input);
+        }
+
         if (cmd.contains("findOptimalP") || cmd.equals("fop")) {
             int[] tuple = optimalPrompt(input);
             int[] ps = buildP(tuple[0], tuple[1], tuple[2]);
@@ -53,11 +73,40 @@ public class Experiment {
         else if (cmd.contains("onlyAlpha") || cmd.equals("oa")) {
             int constantN = onlyAlphaPrompt(input);
             double[] alphas = buildAlpha(0.05, 0.95, 0.05);
-            runExp("onlyAlpha", "sa st oa", alphas, constantN, constantN, new int[]{optimalP}, constantQ);
+            runExp("onlyAlpha", "sa st sc oa ea ve ka co", alphas, constantN, constantN, new int[]{optimalP}, constantQ);
         }
         else if (cmd.contains("compareAllAlgo") || cmd.equals("caa")) {
             int[] tuple = compareAllAlgoPrompt(input);
-            runExp("compareAllAlgo", "sa st oa", new double[]{optimalA}, tuple[0], tuple[1], new int[]{optimalP},-1);
+            runExp("compareAllAlgo", "sa st sc oa ea ve ka co", new double[]{optimalA}, tuple[0], tuple[1], new int[]{optimalP},-1);
+        }
+        else if (cmd.contains("batchSize") || cmd.equals("bs")) {
+            int[] tuple = batchSizePrompt(input);
+            int[] batchSizes = buildBatchSizes(tuple[1]);
+            runBatchExp("batchSize", optimalA, tuple[0], optimalP, batchSizes, constantQ);
+        }
+        else if (cmd.contains("updates") || cmd.equals("up")) {
+            int[] tuple = compareAllAlgoPrompt(input);
+            runUpdateExp("updates", optimalA, tuple[0], tuple[1], constantQ);
+        }
+        else if (cmd.contains("sortedBatch") || cmd.equals("sb")) {
+            int[] tuple = compareAllAlgoPrompt(input);
+            runSortedExp("sortedBatch", "sa st oa", optimalA, tuple[0], tuple[1], optimalP);
+        }
+        else if (cmd.contains("learnedSearch") || cmd.equals("ls")) {
+            int[] tuple = compareAllAlgoPrompt(input);
+            runLearnedExp("learnedSearch", optimalA, tuple[0], tuple[1], constantQ);
+        }
+        else if (cmd.contains("autoTune") || cmd.equals("at")) {
+            int[] tuple = compareAllAlgoPrompt(input);
+            runTuneExp("autoTune", optimalA, tuple[0], tuple[1], constantQ);
+        }
+        else if (cmd.contains("skewedQueries") || cmd.equals("sq")) {
+            int[] tuple = compareAllAlgoPrompt(input);
+            runSkewExp("skewedQueries", optimalA, tuple[0], tuple[1], 512, constantQ);
+        }
+        else if (cmd.contains("compressed") || cmd.equals("co")) {
+            int[] tuple = compareAllAlgoPrompt(input);
+            runCompressedExp("compressed", optimalA, tuple[0], tuple[1], constantQ);
         } else {
             System.err.printf("%s is not recognised as an Option, please try again%n", cmd);
         }
@@ -81,6 +130,21 @@ public class Experiment {
         return ps;
     }
 
+    /**
+     * Builds the batch sizes by doubling from 1 up to the given maximum.
+     * @param max_g the largest batch size
+     * @return the batch sizes in an array
+     */
+    private static int[] buildBatchSizes(int max_g) {
+        int count = 0;
+        for (int g = 1; g <= max_g; g *= 2) count++;
+        int[] gs = new int[count];
+        for (int i = 0, g = 1; i < count; i++, g *= 2) {
+            gs[i] = g;
+        }
+        return gs;
+    }
+
     /**
      * Builds the values of alphas given the minimum, maximum and the step to be 
      * performed between them.
@@ -113,6 +177,10 @@ public class Experiment {
      */
     private static void runExp(String exp, String algos, double[] alphas, 
                                 int min_n, int max_n, int[] ps, int q) {
+        if (gridJobs > 0) {
+            runGrid(exp, algos, alphas, min_n, max_n, ps, q);
+            return;
+        }
         prepareWriter(String.format("data/Experiments/SkewedBST/%s.csv", exp));
         setHeaders("p,n,alpha,seed");
         System.err.printf("%n*** Running %s experiment ***%n", exp);
@@ -124,7 +192,7 @@ public class Experiment {
             Timer t = new Timer();
             for (double alpha : alphas) {
                 for (int n = min_n; n <= max_n; n *= 2) {
-                    int[] set = gen.generateSet(n);
+                    int[] set = gen.generateSortedSet(n);
                     int qSize = q != -1 ? q : n*2; 
                     int[] queries = gen.generateQueries(qSize);
                     for (int p : ps) {
@@ -141,6 +209,407 @@ public class Experiment {
         writeToFile();
     }
 
+    /**
+     * Runs the same cells as runExp, each in its own forked JVM through GridRunner, and
+     * merges the csvs of the cells into the csv of the experiment. The csvs of the cells
+     * are kept in a directory next to it, so running the same grid again only runs the
+     * cells that did not finish, unless the grid is started fresh.
+     * @param exp Contains the name of the experiment being run
+     * @param algos Contains the shorthand notation for the algos wanted to run over
+     * @param alphas the values of alpha wanting to be running
+     * @param min_n the initial value that the set should be initial at
+     * @param max_n the last value that the set should be initial at
+     * @param ps the ps that should be run over
+     * @param q The constant query, if one wants queries to be twice the size of set, put in -1.
+     */
+    private static void runGrid(String exp, String algos, double[] alphas,
+                                int min_n, int max_n, int[] ps, int q) {
+        System.err.printf("%n*** Running %s experiment as a grid ***%n", exp);
+        Path dir = Paths.get(String.format("data/Experiments/SkewedBST/%s.cells", exp));
+        GridRunner grid = new GridRunner(dir, gridJobs, gridCpus, gridFresh);
+        for (long seed : seeds) {
+            for (double alpha : alphas) {
+                for (int n = min_n; n <= max_n; n *= 2) {
+                    for (int p : ps) {
+                        grid.add(algos, seed, alpha, n, p, q);
+                    }
+                }
+            }
+        }
+        Timer t = new Timer();
+        try {
+            if (grid.run()) grid.merge(Paths.get(String.format("data/Experiments/SkewedBST/%s.csv", exp)));
+        } catch (IOException e) {
+            System.err.printf("Something went wrong with the grid: %s%n", e.getMessage());
+        } catch (InterruptedException e) {
+            System.err.println("The grid was interrupted, run it again to resume");
+        }
+        System.err.printf("*** Grid finished. It took %f seconds ***%n", t.check());
+    }
+
+    /**
+     * Runs a single cell of a grid, started by GridRunner with the arguments
+     * job csv algos seed alpha n p q. The set and the queries only depend on the seed, so
+     * a cell gives the same data whichever cells ran before it. The rows are written to a
+     * temporary file that is moved to csv once the cell is done.
+     * @param args the arguments of the job.
+     */
+    private static void runJob(String[] args) {
+        Path csv = Paths.get(args[1]);
+        Path tmp = Paths.get(args[1] + ".tmp");
+        String algos = args[2];
+        long seed = Long.parseLong(args[3]);
+        double alpha = Double.parseDouble(args[4]);
+        int n = Integer.parseInt(args[5]);
+        int p = Integer.parseInt(args[6]);
+        int q = Integer.parseInt(args[7]);
+
+        gen = new Generator(seed);
+        int[] set = gen.generateSortedSet(n);
+        int[] queries = gen.generateQueries(q != -1 ? q : n*2);
+        prepareWriter(tmp.toString());
+        setHeaders("p,n,alpha,seed");
+        String info = String.format("%d,%d,%f,%d", p, n, alpha, seed);
+        runSBST(makeSBST(set, alpha, p, algos), info, queries);
+        writeToFile();
+        try {
+            Files.move(tmp, csv, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.printf("Could not move the rows of the cell to %s%n", csv);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs the batch experiment. Goes over the number of seeds specified in the main method,
+     * and for each batch size answers all the queries with the bulk pred of SortedArray and
+     * OtherArray.
+     * @param exp Contains the name of the experiment being run
+     * @param alpha the value of alpha to run at
+     * @param n the size of the set
+     * @param p the value of p for OtherArray
+     * @param batchSizes the batch sizes that should be run over
+     * @param q the number of queries
+     */
+    private static void runBatchExp(String exp, double alpha, int n, int p, int[] batchSizes, int q) {
+        prepareWriter(String.format("data/Experiments/SkewedBST/%s.csv", exp));
+        setHeaders("p,n,alpha,seed,batchSize");
+        System.err.printf("%n*** Running %s experiment ***%n", exp);
+        byte cycle = 1;
+
+        for (long seed : seeds) {
+            gen.setSeed(seed);
+            System.err.printf("\tStarting %d cycle%n", cycle);
+            Timer t = new Timer();
+            int[] set = gen.generateSortedSet(n);
+            int[] queries = gen.generateQueries(q);
+            SortedArray sa = new SortedArray(set, alpha);
+            OtherArray oa = new OtherArray(set, alpha, p);
+            for (int g : batchSizes) {
+                sa.setBatchSize(g);
+                oa.setBatchSize(g);
+                String info = String.format("%d,%d,%f,%d,%d", p, n, alpha, seed, g);
+                Mark8Batch(sa.name(), info, sa, queries);
+                Mark8Batch(oa.name(), info, oa, queries);
+            }
+            System.err.printf("\t%d cycle finished. It took %f seconds%n", cycle, t.check());
+            cycle++;
+        }
+        System.err.println("*** Experiments completed ***");
+        writeToFile();
+    }
+
+    /**
+     * Runs the sorted batch experiment. Goes over the number of seeds specified in the main
+     * method, and for each size of the set answers as many queries as there are values, once
+     * with the bulk pred and once through SortedBatch.
+     * @param exp Contains the name of the experiment being run
+     * @param algos Contains the shorthand notation for the algos wanted to run over
+     * @param alpha the value of alpha to run at
+     * @param min_n the initial value that the set should be initial at
+     * @param max_n the last value that the set should be initial at
+     * @param p the value of p for OtherArray
+     */
+    private static void runSortedExp(String exp, String algos, double alpha, int min_n, int max_n, int p) {
+        prepareWriter(String.format("data/Experiments/SkewedBST/%s.csv", exp));
+        setHeaders("p,n,alpha,seed");
+        System.err.printf("%n*** Running %s experiment ***%n", exp);
+        byte cycle = 1;
+
+        for (long seed : seeds) {
+            gen.setSeed(seed);
+            System.err.printf("\tStarting %d cycle%n", cycle);
+            Timer t = new Timer();
+            for (int n = min_n; n <= max_n; n *= 2) {
+                int[] set = gen.generateSortedSet(n);
+                int[] queries = gen.generateQueries(n);
+                String info = String.format("%d,%d,%f,%d", p, n, alpha, seed);
+                for (SkewedBST sbst : makeSBST(set, alpha, p, algos)) {
+                    Mark8Batch(sbst.name(), info, sbst, queries);
+                    Mark8Batch(sbst.name() + "Sorted", info, sbst, queries, true);
+                }
+            }
+            System.err.printf("\t%d cycle finished. It took %f seconds%n", cycle, t.check());
+            cycle++;
+        }
+        System.err.println("*** Experiments completed ***");
+        writeToFile();
+    }
+
+    /**
+     * Runs the learned search experiment. Goes over the number of seeds specified in the main
+     * method, and for each size of the set answers the queries with SortedArray, once with SBS
+     * and once with a model of n/16 buckets. Besides the time per query, the mean number of
+     * keys each search compares the query to is reported in the Mean column.
+     * @param exp Contains the name of the experiment being run
+     * @param alpha the value of alpha to run at
+     * @param min_n the initial value that the set should be initial at
+     * @param max_n the last value that the set should be initial at
+     * @param q the number of queries
+     */
+    private static void runLearnedExp(String exp, double alpha, int min_n, int max_n, int q) {
+        prepareWriter(String.format("data/Experiments/SkewedBST/%s.csv", exp));
+        setHeaders("p,n,alpha,seed");
+        System.err.printf("%n*** Running %s experiment ***%n", exp);
+        byte cycle = 1;
+
+        for (long seed : seeds) {
+            gen.setSeed(seed);
+            System.err.printf("\tStarting %d cycle%n", cycle);
+            Timer t = new Timer();
+            for (int n = min_n; n <= max_n; n *= 2) {
+                int[] set = gen.generateSortedSet(n);
+                int[] queries = gen.generateQueries(q);
+                String info = String.format("%d,%d,%f,%d", 0, n, alpha, seed);
+                SortedArray sa = new SortedArray(set, alpha);
+                String name = sa.name();
+                Mark8Setup(name, info, sa, queries);
+                writeProbes(name + "Probes", info, sa, queries);
+                sa.useModel(Math.max(1, n / 16));
+                Mark8Setup(name + "Model", info, sa, queries);
+                writeProbes(name + "ModelProbes", info, sa, queries);
+            }
+            System.err.printf("\t%d cycle finished. It took %f seconds%n", cycle, t.check());
+            cycle++;
+        }
+        System.err.println("*** Experiments completed ***");
+        writeToFile();
+    }
+
+    /**
+     * Writes the mean and standard deviation of the number of keys the SortedArray compares
+     * each query to.
+     * @param className the name written in the Algo column.
+     * @param info contains additional information, speficially the value of p, n, alpha and the seed.
+     * @param sa the SortedArray to count the probes of.
+     * @param queries all the queries that will be counted.
+     */
+    private static void writeProbes(String className, String info, SortedArray sa, int[] queries) {
+        double st = 0.0, sst = 0.0;
+        for (int query : queries) {
+            int probes = sa.probes(query);
+            st += probes;
+            sst += (double) probes * probes;
+        }
+        int len = queries.length;
+        double mean = st/len, sdev = Math.sqrt((sst - mean*mean*len)/(len-1));
+        write(String.format("%s,%s,%f,%f", className, info, mean, sdev));
+    }
+
+    /**
+     * Runs the auto tuning experiment. Goes over the number of seeds specified in the main
+     * method, and for each size of the set lets AutoTuner pick an sbst from a sample of a tenth
+     * of the queries, and then benchmarks it on all the queries next to a SortedArray with the
+     * given alpha. The row of the tuned sbst has the alpha and p it was tuned to.
+     * @param exp Contains the name of the experiment being run
+     * @param alpha the value of alpha of the SortedArray it is compared to
+     * @param min_n the initial value that the set should be initial at
+     * @param max_n the last value that the set should be initial at
+     * @param q the number of queries
+     */
+    private static void runTuneExp(String exp, double alpha, int min_n, int max_n, int q) {
+        prepareWriter(String.format("data/Experiments/SkewedBST/%s.csv", exp));
+        setHeaders("p,n,alpha,seed");
+        System.err.printf("%n*** Running %s experiment ***%n", exp);
+        byte cycle = 1;
+
+        for (long seed : seeds) {
+            gen.setSeed(seed);
+            System.err.printf("\tStarting %d cycle%n", cycle);
+            Timer t = new Timer();
+            for (int n = min_n; n <= max_n; n *= 2) {
+                int[] set = gen.generateSortedSet(n);
+                int[] queries = gen.generateQueries(q);
+                AutoTuner.Result best = AutoTuner.tune(set.clone(), Arrays.copyOf(queries, q / 10));
+                System.err.printf("\t\tn = %d tuned to %s%n", n, best);
+                String info = String.format("%d,%d,%f,%d", best.p, n, best.alpha, seed);
+                Mark8Setup(best.sbst.name() + "Tuned", info, best.sbst, queries);
+                SortedArray sa = new SortedArray(set, alpha);
+                Mark8Setup(sa.name(), String.format("%d,%d,%f,%d", 0, n, alpha, seed), sa, queries);
+            }
+            System.err.printf("\t%d cycle finished. It took %f seconds%n", cycle, t.check());
+            cycle++;
+        }
+        System.err.println("*** Experiments completed ***");
+        writeToFile();
+    }
+
+    /**
+     * Runs the skewed queries experiment. Goes over the number of seeds specified in the main
+     * method, and for each size of the set and each workload benchmarks a SortedArray with and
+     * without a PredCache in front of it. The hit rate of a cold cache over one pass of the
+     * queries is reported in the Mean column of the HitRate row.
+     * The workloads are uniform, Zipf with s = 0.5, 1.0 and 1.5, 90% of the queries on 1000
+     * hot values, and a sequential scan.
+     * @param exp Contains the name of the experiment being run
+     * @param alpha the value of alpha to run at
+     * @param min_n the initial value that the set should be initial at
+     * @param max_n the last value that the set should be initial at
+     * @param lines the size of the cache in cache lines
+     * @param q the number of queries
+     */
+    private static void runSkewExp(String exp, double alpha, int min_n, int max_n, int lines, int q) {
+        prepareWriter(String.format("data/Experiments/SkewedBST/%s.csv", exp));
+        setHeaders("p,n,alpha,seed,workload");
+        System.err.printf("%n*** Running %s experiment ***%n", exp);
+        byte cycle = 1;
+        String[] workloads = {"uniform", "zipf0.5", "zipf1.0", "zipf1.5", "hotspot", "sequential"};
+
+        for (long seed : seeds) {
+            gen.setSeed(seed);
+            System.err.printf("\tStarting %d cycle%n", cycle);
+            Timer t = new Timer();
+            for (int n = min_n; n <= max_n; n *= 2) {
+                int[] set = gen.generateSortedSet(n);
+                SortedArray sa = new SortedArray(set, alpha);
+                for (String workload : workloads) {
+                    int[] queries;
+                    if (workload.startsWith("zipf")) {
+                        queries = gen.generateZipfQueries(q, Double.parseDouble(workload.substring(4)));
+                    } else if (workload.equals("hotspot")) {
+                        queries = gen.generateHotspotQueries(q, 1000, 0.9);
+                    } else if (workload.equals("sequential")) {
+                        queries = gen.generateSequentialQueries(q, n);
+                    } else {
+                        queries = gen.generateQueries(q);
+                    }
+                    String info = String.format("%d,%d,%f,%d,%s", 0, n, alpha, seed, workload);
+                    PredCache cache = new PredCache(sa, lines);
+                    for (int query : queries) cache.pred(query);
+                    double hitRate = 1.0 - (double) cache.misses() / queries.length;
+                    write(String.format("%s,%s,%f,%f", cache.name() + "HitRate", info, hitRate, 0.0));
+                    Mark8Setup(sa.name(), info, sa, queries);
+                    Mark8Setup(cache.name(), info, cache, queries);
+                }
+            }
+            System.err.printf("\t%d cycle finished. It took %f seconds%n", cycle, t.check());
+            cycle++;
+        }
+        System.err.println("*** Experiments completed ***");
+        writeToFile();
+    }
+
+    /**
+     * Runs the compressed experiment. Goes over the number of seeds specified in the main
+     * method, and for each size of the set benchmarks SortedArray and CompressedArray, and
+     * writes the bytes per value of each in the Mean column of the Bytes rows.
+     * @param exp Contains the name of the experiment being run
+     * @param alpha the value of alpha to run at
+     * @param min_n the initial value that the set should be initial at
+     * @param max_n the last value that the set should be initial at
+     * @param q the number of queries
+     */
+    private static void runCompressedExp(String exp, double alpha, int min_n, int max_n, int q) {
+        prepareWriter(String.format("data/Experiments/SkewedBST/%s.csv", exp));
+        setHeaders("p,n,alpha,seed");
+        System.err.printf("%n*** Running %s experiment ***%n", exp);
+        byte cycle = 1;
+
+        for (long seed : seeds) {
+            gen.setSeed(seed);
+            System.err.printf("\tStarting %d cycle%n", cycle);
+            Timer t = new Timer();
+            for (int n = min_n; n <= max_n; n *= 2) {
+                int[] set = gen.generateSortedSet(n);
+                int[] queries = gen.generateQueries(q);
+                String info = String.format("%d,%d,%f,%d", 0, n, alpha, seed);
+                SortedArray sa = new SortedArray(set.clone(), alpha);
+                CompressedArray co = new CompressedArray(set, alpha);
+                Mark8Setup(sa.name(), info, sa, queries);
+                write(String.format("%s,%s,%f,%f", sa.name() + "Bytes", info, 4.0, 0.0));
+                Mark8Setup(co.name(), info, co, queries);
+                write(String.format("%s,%s,%f,%f", co.name() + "Bytes", info, (double) co.bytes() / n, 0.0));
+            }
+            System.err.printf("\t%d cycle finished. It took %f seconds%n", cycle, t.check());
+            cycle++;
+        }
+        System.err.println("*** Experiments completed ***");
+        writeToFile();
+    }
+
+    /**
+     * Runs the update experiment. Goes over the number of seeds specified in the main method,
+     * and for each size of the set builds a SearchTree of n values, inserts n new values and
+     * deletes them again. Reports the time per insert and per delete, and the time per pred
+     * after the inserts next to a SearchTree freshly built from the same 2n values.
+     * @param exp Contains the name of the experiment being run
+     * @param alpha the value of alpha to run at
+     * @param min_n the initial value that the set should be initial at
+     * @param max_n the last value that the set should be initial at
+     * @param q the number of queries
+     */
+    private static void runUpdateExp(String exp, double alpha, int min_n, int max_n, int q) {
+        prepareWriter(String.format("data/Experiments/SkewedBST/%s.csv", exp));
+        setHeaders("p,n,alpha,seed");
+        System.err.printf("%n*** Running %s experiment ***%n", exp);
+        byte cycle = 1;
+        // every repetition rebuilds the tree, so fewer are run than for pred
+        int rep = Math.max(2, repetition / 10);
+
+        for (long seed : seeds) {
+            gen.setSeed(seed);
+            System.err.printf("\tStarting %d cycle%n", cycle);
+            Timer t = new Timer();
+            for (int n = min_n; n <= max_n; n *= 2) {
+                int[] all = gen.generateSet(2 * n);
+                int[] queries = gen.generateQueries(q);
+                int[] base = Arrays.copyOfRange(all, 0, n);
+                int[] added = Arrays.copyOfRange(all, n, 2 * n);
+                String info = String.format("%d,%d,%f,%d", 0, n, alpha, seed);
+                String name = SearchTree.class.getName();
+
+                double ins = 0.0, sins = 0.0, del = 0.0, sdel = 0.0;
+                for (int j = 0; j < rep; j++) {
+                    SearchTree st = new SearchTree(base.clone(), alpha);
+                    Timer ti = new Timer();
+                    for (int x : added) st.insert(x);
+                    double time = ti.check() * 1e9 / n;
+                    ins += time;
+                    sins += time * time;
+                    Timer td = new Timer();
+                    for (int x : added) st.delete(x);
+                    time = td.check() * 1e9 / n;
+                    del += time;
+                    sdel += time * time;
+                }
+                double mean = ins/rep, sdev = Math.sqrt((sins - mean*mean*rep)/(rep-1));
+                write(String.format("%s,%s,%f,%f", name + "Insert", info, mean, sdev));
+                mean = del/rep;
+                sdev = Math.sqrt((sdel - mean*mean*rep)/(rep-1));
+                write(String.format("%s,%s,%f,%f", name + "Delete", info, mean, sdev));
+
+                SearchTree st = new SearchTree(base.clone(), alpha);
+                for (int x : added) st.insert(x);
+                Mark8Setup(name + "AfterInserts", info, st, queries);
+                Mark8Setup(name + "Fresh", info, new SearchTree(all.clone(), alpha), queries);
+            }
+            System.err.printf("\t%d cycle finished. It took %f seconds%n", cycle, t.check());
+            cycle++;
+        }
+        System.err.println("*** Experiments completed ***");
+        writeToFile();
+    }
+
     /**
      * Creates the Skewed Binary Trees (sbst) specified in the String and adds them to a List.
      * @param set the set of values used when initializing an sbst
@@ -153,7 +622,13 @@ public class Experiment {
         LinkedList<SkewedBST> algoList = new LinkedList<>();
         if (algos.contains("sa")) algoList.add(new SortedArray(set,alpha));
         if (algos.contains("st")) algoList.add(new SearchTree(set,alpha));
+        if (algos.contains("sc")) algoList.add(new SearchTree(set,alpha,true));
         if (algos.contains("oa")) algoList.add(new OtherArray(set,alpha,p));
+        if (algos.contains("ea")) algoList.add(new EytzingerArray(set,alpha));
+        if (algos.contains("ve")) algoList.add(OtherArray.vanEmdeBoas(set,alpha));
+        if (algos.contains("ka")) algoList.add(new KaryArray(set,alpha,16));
+        if (algos.contains("co")) algoList.add(new CompressedArray(set,alpha));
+        if (algos.contains("bo")) algoList.add(new BigOtherArray(set,alpha,p,true));
         return algoList;
     }
 
@@ -171,15 +646,51 @@ public class Experiment {
                 dummy += warmUp(sbst, queries);
                 warmUpOcccured = true;
             }
-            dummy += Mark8Setup(sbst.getClass().getName(), info, sbst, queries);
+            dummy += Mark8Setup(sbst.name(), info, sbst, queries);
+            if (sbst.stats() != null) dummy += writeStats(sbst, info, queries);
         }
         return dummy;
     }
 
+    /**
+     * Counts the searches of one pass over the queries, and writes the mean number of keys
+     * compared, nodes visited and blocks touched per query. The standard deviation is only
+     * known for the nodes visited, from the depth histogram. The counters are also registered
+     * with JMX under the name of the sbst. Only run when SearchStats.ENABLED is set.
+     * @param sbst the given sbst that one wants the counters of.
+     * @param info contains additional information, speficially the value of p, n, alpha and the seed.
+     * @param queries all the queries that will be counted.
+     * @return dummy value to avoid deadcode.
+     */
+    private static int writeStats(SkewedBST sbst, String info, int[] queries) {
+        SearchStats stats = sbst.stats();
+        try {
+            stats.register(sbst.name());
+        } catch (JMException e) {
+            System.err.printf("Could not register the counters of %s: %s%n", sbst.name(), e.getMessage());
+        }
+        stats.reset();
+        int dummy = 0;
+        for (int query : queries) {
+            dummy += sbst.pred(query);
+        }
+        long[] depths = stats.getDepthHistogram();
+        double mean = stats.getMeanNodesVisited(), sst = 0.0;
+        for (int d = 0; d < depths.length; d++) {
+            sst += depths[d] * (d - mean) * (d - mean);
+        }
+        double sdev = Math.sqrt(sst / Math.max(1, stats.getQueries() - 1));
+        write(String.format("%s,%s,%f,%f", sbst.name() + "Comparisons", info, stats.getMeanComparisons(), 0.0));
+        write(String.format("%s,%s,%f,%f", sbst.name() + "Nodes", info, mean, sdev));
+        write(String.format("%s,%s,%f,%f", sbst.name() + "Blocks", info, stats.getMeanBlocksTouched(), 0.0));
+        return dummy;
+    }
+
     /**
      * The benchmarking of the Pred for each Skewed Binary Tree (sbst) happens in this function. It goes
      * over each query rep times. Calculates the mean and standard deviation and then writes it
-     * to a file.
+     * to a file. Nothing is timed when SearchStats.ENABLED is set, as pred then runs the
+     * instrumented searches, whose latency is not the latency of the sbst.
      * Mark8Setup is taken from the below cited paper, with modifications to fit this specific case. 
 	 * Peter Sestoft (2015, September). Microbenchmarks in Java and C#. (0.8.0). IT University of Copenhagen, Copenhagen.
      * @param className the name of the given algorithm that is being checked.
@@ -190,13 +701,14 @@ public class Experiment {
      * @return a dummy that ensures Java will not optimize away the results.
      */
 	private static int Mark8Setup(String className, String info, SkewedBST sbst, int rep, int[] queries) {
+        if (SearchStats.ENABLED) return 0;
         double runningTime = 0.0, st = 0.0, sst = 0.0;
         int dummy = 0;
 
         for (int j=0; j<rep; j++) {
             Timer t = new Timer();
             for (int query : queries) {
-                dummy += sbst.Pred(query).capacity();
+                dummy += sbst.pred(query);
             }
             runningTime = t.check();
             double time = runningTime * 1e9 / queries.length;
@@ -221,6 +733,55 @@ public class Experiment {
 		return Mark8Setup(className, info, sbst, repetition, queries);
     }
 
+    /**
+     * Benchmarks the bulk pred of the given sbst in the same way as Mark8Setup, all the queries
+     * are answered in one call, and the time is reported per query.
+     * @param className the name of the given algorithm that is being checked.
+     * @param info contains additional information, speficially the value of p, n, alpha, the seed and the batch size.
+     * @param sbst the given sbst that one wants to use the bulk pred function from.
+     * @param queries all the queries that will be benchmarked.
+     * @return a dummy that ensures Java will not optimize away the results.
+     */
+    private static int Mark8Batch(String className, String info, SkewedBST sbst, int[] queries) {
+        return Mark8Batch(className, info, sbst, queries, false);
+    }
+
+    /**
+     * Overloaded method that can also benchmark answering the queries through SortedBatch.
+     * Like Mark8Setup nothing is timed when SearchStats.ENABLED is set.
+     * @param className the name of the given algorithm that is being checked.
+     * @param info contains additional information, speficially the value of p, n, alpha and the seed.
+     * @param sbst the given sbst that one wants to use the bulk pred function from.
+     * @param queries all the queries that will be benchmarked.
+     * @param sorted whether the queries are answered through SortedBatch.
+     * @return a dummy that ensures Java will not optimize away the results.
+     */
+    private static int Mark8Batch(String className, String info, SkewedBST sbst, int[] queries, boolean sorted) {
+        if (SearchStats.ENABLED) return 0;
+        double runningTime = 0.0, st = 0.0, sst = 0.0;
+        int dummy = 0;
+        int[] out = new int[queries.length];
+
+        for (int i = 0; i < 10; i++) {
+            if (sorted) SortedBatch.pred(sbst, queries, out);
+            else sbst.pred(queries, out);
+            dummy += out[i % out.length];
+        }
+        for (int j=0; j<repetition; j++) {
+            Timer t = new Timer();
+            if (sorted) SortedBatch.pred(sbst, queries, out);
+            else sbst.pred(queries, out);
+            runningTime = t.check();
+            dummy += out[j % out.length];
+            double time = runningTime * 1e9 / queries.length;
+            st += time;
+            sst += time * time;
+        }
+        double mean = st/repetition, sdev = Math.sqrt((sst - mean*mean*repetition)/(repetition-1));
+        write(String.format("%s,%s,%f,%f", className, info, mean, sdev));
+        return dummy;
+    }
+
     /**
      * Prepares the system for the test with a warmup round..
      * @param sbst the Skewed Binary Search Tree to be tested upon
@@ -232,7 +793,7 @@ public class Experiment {
         System.err.print("\tWarmup Started ...");
         for (int i = 0; i < 100; i++)
             for (int query : queries)
-                dummy += sbst.Pred(query).capacity();
+                dummy += sbst.pred(query);
         System.err.println(" Warmup Completed");
         return dummy;
     }
@@ -352,6 +913,51 @@ public class Experiment {
         return new int[]{minN, maxN};
     }
 
+    /**
+     * Prompts the user for how to run an experiment as a grid, and for which experiment.
+     * @param input a scanner that reads the input from the terminal
+     * @return the experiment to be run as a grid.
+     */
+    private static String gridPrompt(Scanner input) {
+        System.err.printf("*** The experiment is about to be run as a grid ***%n");
+        System.err.printf("\tEach seed, alpha, set size and p is run in its own JVM,%n");
+        System.err.printf("\tseveral at a time. A grid that is run again resumes from%n");
+        System.err.printf("\tthe cells that finished, if the same code made them.%n");
+        System.err.printf("\tOnly fop, oa and caa run as a grid.%n");
+        System.err.printf("%n\t** Please set the following **%n");
+        System.err.printf("\tExperiment: ");
+        String cmd = input.nextLine();
+        System.err.printf("\tParallel jobs: ");
+        gridJobs = Integer.parseInt(input.nextLine().trim());
+        System.err.printf("\tCPUs to pin the jobs to, e.g. 0-3 (empty to not pin): ");
+        String cpus = input.nextLine().trim();
+        gridCpus = cpus.isEmpty() ? null : GridRunner.parseCpus(cpus);
+        System.err.printf("\tStart fresh, removing the cells of an earlier run (y/n): ");
+        gridFresh = input.nextLine().trim().startsWith("y");
+        System.err.println();
+        return cmd;
+    }
+
+    /**
+     * Prompts the user for specific input for the batchSize experiment. Also tells the
+     * user which values it will be run at.
+     * @param input a scanner that reads the input from the terminal
+     * @return the constant set size and the largest batch size.
+     */
+    private static int[] batchSizePrompt(Scanner input) {
+        System.err.printf("*** The batchSize experiment is about to be performed ***%n");
+        System.err.printf("\tIn this experiment only the batch size of SortedArray and%n");
+        System.err.printf("\tOtherArray will change. The batch size is doubled from 1%n");
+        System.err.printf("\tup to the largest batch size, inclusive.%n");
+        System.err.printf("%n\t** Please set the following **%n");
+        System.err.printf("\tConstant Set size: ");
+        int n = input.nextInt();
+        System.err.printf("\tLargest batch size: ");
+        int maxG = input.nextInt();
+        System.err.println();
+        return new int[]{n, maxG};
+    }
+
     /**
      * Crude wall clock timing utility, measuring time in seconds
      * Taken from the below paper. 
@@ -0,0 +1,134 @@
+// Generated by template/specialize.sh from template/KeyEytzingerArray.java.tmpl, edit the template instead.
+package part1;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of a Skewed Binary Search Tree that stores the nodes in
+ * breadth-first (Eytzinger) order in a single array. Each node takes 3
+ * positions in the array like so [key, left, right], where left and right
+ * are the indices of the children. Index 0 is never used by a node, so
+ * a missing child is stored as 0, which lets Pred run without branching
+ * on the comparisons.
+ */
+public class EytzingerArray implements SkewedBST {
+
+    int[] set;
+    int min;
+    int max;
+
+    /**
+     * Initializes an EytzingerArray, all building occurs in the constructor.
+     * The tree has the same shape as the one built by SearchTree, only the
+     * nodes are laid out level by level.
+     * @param elems the elements to be added.
+     * @param alpha decides how skewed the binary search tree is going to be.
+     */
+    public EytzingerArray(int[] elems, double alpha){
+        Arrays.parallelSort(elems);
+        min = elems[0];
+        max = elems[elems.length - 1];
+        set = new int[3 * (elems.length + 1)];
+        buildBFS(elems, alpha);
+    }
+
+    /**
+     * Lays the skewed tree out in breadth-first order. The ranges [lo, hi] of the
+     * subtrees are kept in a queue, and since a node is placed in the same order
+     * as it is enqueued, the index of a child is known the moment it is enqueued.
+     * @param S the sorted set.
+     * @param alpha decides how skewed the binary search tree is going to be.
+     */
+    private void buildBFS(int[] S, double alpha){
+        int n = S.length;
+        int[] los = new int[n];
+        int[] his = new int[n];
+        int head = 0, tail = 0;
+
+        los[tail] = 0;
+        his[tail] = n - 1;
+        tail++;
+        while (head < tail) {
+            int lo = los[head];
+            int hi = his[head];
+            int pos = 3 * (head + 1);
+            head++;
+
+            int mid = (int)(lo + (hi - lo) * alpha);
+            set[pos] = S[mid];
+            if (lo <= mid - 1) {
+                los[tail] = lo;
+                his[tail] = mid - 1;
+                tail++;
+                set[pos + 1] = 3 * tail;
+            }
+            if (mid + 1 <= hi) {
+                los[tail] = mid + 1;
+                his[tail] = hi;
+                tail++;
+                set[pos + 2] = 3 * tail;
+            }
+        }
+    }
+
+    /**
+     * Finds and returns the value y in the tree such that y <= x.
+     * Worst case is O(log(n)), best case is O(1) if x is outside
+     * the range of the set (not considering memory).
+     * @param x the value to be queried.
+     * @return the value if there is one, if not NONE.
+     */
+    public int pred(int x){
+        if (x < min) return NONE;
+        if (x >= max) return max;
+        return search(x);
+    }
+
+    /**
+     * Answers pred for the queries from index from to index to.
+     * @param queries the values to be queried.
+     * @param out where the answer to queries[i] is written to out[i].
+     * @param from the first query to answer, inclusive.
+     * @param to the last query to answer, exclusive.
+     */
+    public void pred(int[] queries, int[] out, int from, int to){
+        for (int i = from; i < to; i++) {
+            out[i] = pred(queries[i]);
+        }
+    }
+
+    /**
+     * @return the smallest value in the set.
+     */
+    public int min(){
+        return min;
+    }
+
+    /**
+     * Walks from the root to the sentinel. The comparison only selects the next
+     * index and the candidate, so the loop has no data dependent branches, and
+     * the next node's index is read from the same cache line as the key.
+     * @param x the value to be queried, min <= x.
+     * @return the largest key y such that y <= x.
+     */
+    private int search(int x){
+        int[] a = set;
+        int pos = 3;
+        int y = min;
+        while (pos != 0) {
+            int k = a[pos];
+            int ge = (int)(((long) k - x - 1) >>> 63); // 1 if k <= x, else 0
+            y = ge == 1 ? k : y;
+            pos = a[pos + 1 + ge];
+        }
+        return y;
+    }
+
+    public static void main(String[] args) {
+        double alpha = 0.4;
+        int threads = Runtime.getRuntime().availableProcessors();
+        InputReader.readInt();
+        EytzingerArray st = new EytzingerArray(InputReader.readElems(), alpha);
+        InputReader.runOp(st, threads);
+    }
+}
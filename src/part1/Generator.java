@@ -1,6 +1,8 @@
 package part1;
 
+import java.util.Arrays;
 import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.stream.IntStream;
 
 /**
@@ -8,6 +10,9 @@ import java.util.stream.IntStream;
  */
 public class Generator{
 
+    // the number of keys drawn by each task of generateSortedSet
+    private static final int CHUNK = 1 << 16;
+
     private Random rand;
     public int count = 0;
     private int max;
@@ -40,6 +45,56 @@ public class Generator{
         return IntStream.concat(set, range).toArray();
     }
 
+    /**
+     * Generates a sorted set of size n, with the same range as generateSet, directly
+     * into the array that is returned. The n - 2 keys between min and max are drawn
+     * in chunks of CHUNK keys, in parallel. Each chunk gets its own SplittableRandom,
+     * split from the seed in order, so the set only depends on the seed and not on
+     * the number of threads.
+     *
+     * The keys are drawn as a sorted multiset of the first width - (n - 2) + 1 values
+     * between min and max, and key i is then draw i plus i, which makes the keys
+     * distinct without a hash set or retries. Chunk c draws from its share of those
+     * values, in proportion to its share of the keys. So the set is not an exactly
+     * uniform sample like generateSet, the chunks get a fixed number of keys and the
+     * keys are a little more spread out, but for sets much smaller than the range
+     * the difference does not show.
+     * @param n the size of the set
+     * @return the set as a sorted array
+     */
+    int[] generateSortedSet(int n) {
+        if (n < 2) throw new IllegalArgumentException("n has to be larger than 1");
+        findRange(n);
+        int k = n - 2;
+        int min = this.min;
+        long draws = (long) max - min - 1 - k + 1;
+        int chunks = (k + CHUNK - 1) / CHUNK;
+        SplittableRandom root = new SplittableRandom(rand.nextLong());
+        SplittableRandom[] rands = new SplittableRandom[chunks];
+        for (int c = 0; c < chunks; c++) {
+            rands[c] = root.split();
+        }
+
+        int[] S = new int[n];
+        S[0] = min;
+        S[n - 1] = max;
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            SplittableRandom r = rands[c];
+            int from = c * CHUNK, to = Math.min(k, from + CHUNK);
+            // the same expression bounds neighbouring chunks, so the draws stay sorted
+            long lo = (long)((double) draws * from / k);
+            long hi = Math.max(lo + 1, (long)((double) draws * to / k));
+            for (int i = from; i < to; i++) {
+                S[1 + i] = (int)(min + 1 + r.nextLong(lo, hi));
+            }
+            Arrays.sort(S, 1 + from, 1 + to);
+            for (int i = from; i < to; i++) {
+                S[1 + i] += i;
+            }
+        });
+        return S;
+    }
+
     /**
      * Generates the queries to be performed on the set. The queries will be of size n.
      * The queries will always contain the maximum and minimum values of the set, to
@@ -57,17 +112,96 @@ public class Generator{
         return IntStream.concat(Q, worstVal).toArray();
     }
 
+    /**
+     * Generates Zipf distributed queries. A pool of n values between min and max is drawn
+     * uniformly, and the query at rank r of the pool is picked with a probability
+     * proportional to 1/r^s, so a larger s makes the few most popular queries more common.
+     * Like generateQueries the maximum and minimum values are included.
+     * @param n the number of queries to be made.
+     * @param s the skew, 0 is uniform over the pool.
+     * @return the queries as an array
+     */
+    int[] generateZipfQueries(int n, double s) {
+        if (n < 2) throw new IllegalArgumentException("n has to be larger than 1");
+        int[] pool = rand.ints(n, min + 1, max).toArray();
+        double[] cdf = new double[n];
+        double sum = 0.0;
+        for (int r = 0; r < n; r++) {
+            sum += 1.0 / Math.pow(r + 1, s);
+            cdf[r] = sum;
+        }
+        int[] Q = new int[n];
+        for (int i = 0; i < n - 2; i++) {
+            int r = Arrays.binarySearch(cdf, rand.nextDouble() * sum);
+            Q[i] = pool[Math.min(r < 0 ? -r - 1 : r, n - 1)];
+        }
+        Q[n - 2] = max;
+        Q[n - 1] = min;
+        return Q;
+    }
+
+    /**
+     * Generates queries where a share of the queries goes to a few hot values and the
+     * rest is uniform like generateQueries. The hot values are drawn uniformly between
+     * min and max. The maximum and minimum values are included.
+     * @param n the number of queries to be made.
+     * @param hot the number of hot values.
+     * @param hotShare the probability that a query is one of the hot values.
+     * @return the queries as an array
+     */
+    int[] generateHotspotQueries(int n, int hot, double hotShare) {
+        if (n < 2) throw new IllegalArgumentException("n has to be larger than 1");
+        if (hot < 1) throw new IllegalArgumentException("hot has to be larger than 0");
+        int[] hotValues = rand.ints(hot, min + 1, max).toArray();
+        long width = (long) max - min - 1;
+        int[] Q = new int[n];
+        for (int i = 0; i < n - 2; i++) {
+            Q[i] = rand.nextDouble() < hotShare ? hotValues[rand.nextInt(hot)]
+                                                : (int)(min + 1 + (long)(rand.nextDouble() * width));
+        }
+        Q[n - 2] = max;
+        Q[n - 1] = min;
+        return Q;
+    }
+
+    /**
+     * Generates a sequential scan, increasing queries from a random start that wrap
+     * around to min + 1 at max, each step being random between 1 and twice the
+     * average gap between the values of the set. The maximum and minimum values are
+     * included.
+     * @param n the number of queries to be made.
+     * @param setSize the size of the set the queries are for.
+     * @return the queries as an array
+     */
+    int[] generateSequentialQueries(int n, int setSize) {
+        if (n < 2) throw new IllegalArgumentException("n has to be larger than 1");
+        long width = (long) max - min - 1;
+        int gap = (int) Math.max(1, Math.min(Integer.MAX_VALUE / 2, 2 * width / setSize));
+        long x = min + 1 + (long)(rand.nextDouble() * width);
+        int[] Q = new int[n];
+        for (int i = 0; i < n - 2; i++) {
+            x += 1 + rand.nextInt(gap);
+            if (x >= max) x = min + 1 + (x - max) % width;
+            Q[i] = (int) x;
+        }
+        Q[n - 2] = max;
+        Q[n - 1] = min;
+        return Q;
+    }
+
     /**
      * Finds the maximum and minimum values randomly, ensuring that the difference between
      * them are atleast n.
      * @param n the wanted size of the set
      */
     private void findRange(int n) {
-        max = rand.nextInt();
-        min = rand.nextInt();
-        max = Math.max(max, min);
-        min = Math.min(max, min);
-        if (max - min < n) findRange(n);
+        // the difference is taken as an int like it always was, so the range of a seed stays the same
+        do {
+            max = rand.nextInt();
+            min = rand.nextInt();
+            max = Math.max(max, min);
+            min = Math.min(max, min);
+        } while (max - min < n);
     }
 
     /**
@@ -0,0 +1,317 @@
+package part1;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the cells of an experiment grid in forked JVMs, several at a time. A cell is one
+ * set of algos, seed, alpha, n, p and q, and is run by Experiment in job mode, which
+ * writes the rows of the cell to its own csv in the cell directory. The csv is only moved
+ * into place once the cell is done, so a cell whose csv exists is finished and is skipped
+ * when the grid is run again, which resumes an interrupted grid.
+ *
+ * The cell directory has a manifest with a hash of the part1 classes and the Java version
+ * that made its cells. A grid only resumes from the cells when the manifest matches, so
+ * cells made by other code are never merged with new ones. Starting the grid fresh
+ * removes the cells and the manifest first.
+ *
+ * Every cell runs in a fresh JVM, so the JIT profile of one cell does not leak into the
+ * next. On Linux each of the parallel jobs can be pinned to its own CPU with taskset, so
+ * the jobs running at the same time do not move between and disturb each other's cores.
+ *
+ * The forked JVMs never outlive the grid. If the grid is interrupted, or this JVM is
+ * stopped with Ctrl-C, the running cells are killed, so no cell is left running that
+ * could write its csv after the grid is resumed.
+ */
+public class GridRunner {
+
+    // the file in the cell directory that records which code made the cells
+    private static final String MANIFEST = "grid.manifest";
+
+    private final Path dir;
+    private final int jobs;
+    private final int[] cpus;
+    private final boolean fresh;
+    private final List<String[]> cells = new ArrayList<>();
+    private final List<Path> files = new ArrayList<>();
+    // the JVMs of the cells that are running
+    private final Set<Process> running = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param dir the directory where the csv of each cell is kept.
+     * @param jobs the number of cells run at the same time.
+     * @param cpus the CPUs the jobs are pinned to, job i to cpus[i], null to not pin.
+     * @param fresh whether the cells already in dir are removed instead of resumed from.
+     */
+    GridRunner(Path dir, int jobs, int[] cpus, boolean fresh){
+        if (jobs < 1) throw new IllegalArgumentException("jobs has to be larger than 0");
+        if (cpus != null && cpus.length < jobs) throw new IllegalArgumentException("pinning needs a CPU for each job");
+        this.dir = dir;
+        this.jobs = jobs;
+        this.cpus = cpus;
+        this.fresh = fresh;
+    }
+
+    /**
+     * Adds a cell to the grid.
+     * @param algos the shorthand notation for the algos to run.
+     * @param seed the seed of the set and the queries.
+     * @param alpha the value of alpha.
+     * @param n the size of the set.
+     * @param p the value of p.
+     * @param q the number of queries, -1 for twice the size of the set.
+     */
+    void add(String algos, long seed, double alpha, int n, int p, int q){
+        // the algos are a list of shorthands, so only their letters and digits go into the name
+        String name = algos.replaceAll("[^A-Za-z0-9]+", "-");
+        Path file = dir.resolve(String.format("%s_seed%d_alpha%s_n%d_p%d_q%d.csv", name, seed, alpha, n, p, q));
+        cells.add(new String[]{file.toString(), algos, Long.toString(seed), Double.toString(alpha),
+                               Integer.toString(n), Integer.toString(p), Integer.toString(q)});
+        files.add(file);
+    }
+
+    /**
+     * Runs the cells that are not finished yet.
+     * @return true if every cell of the grid is finished.
+     * @throws IOException if the cell directory or its manifest cannot be made.
+     * @throws InterruptedException if interrupted while waiting for the jobs.
+     */
+    boolean run() throws IOException, InterruptedException {
+        Files.createDirectories(dir);
+        if (fresh) clear();
+        if (!checkManifest()) return false;
+        List<String[]> todo = new ArrayList<>();
+        for (int c = 0; c < cells.size(); c++) {
+            if (!Files.exists(files.get(c))) todo.add(cells.get(c));
+        }
+        System.err.printf("\t%d of %d cells are finished, running %d on %d jobs%n",
+                          cells.size() - todo.size(), cells.size(), todo.size(), jobs);
+
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        Thread[] workers = new Thread[jobs];
+        for (int j = 0; j < jobs; j++) {
+            int cpu = cpus == null ? -1 : cpus[j];
+            workers[j] = new Thread(() -> {
+                for (int c = next.getAndIncrement(); c < todo.size(); c = next.getAndIncrement()) {
+                    if (!runCell(todo.get(c), cpu)) failed.incrementAndGet();
+                    if (Thread.currentThread().isInterrupted()) break;
+                }
+            });
+            workers[j].start();
+        }
+
+        Thread killer = new Thread(this::killRunning);
+        Runtime.getRuntime().addShutdownHook(killer);
+        try {
+            for (Thread w : workers) w.join();
+        } catch (InterruptedException e) {
+            for (Thread w : workers) w.interrupt();
+            killRunning();
+            throw e;
+        } finally {
+            try {
+                Runtime.getRuntime().removeShutdownHook(killer);
+            } catch (IllegalStateException e) {
+                // this JVM is already shutting down, so the hook is running
+            }
+        }
+
+        if (failed.get() > 0) {
+            System.err.printf("\t%d cells failed, see the .log files in %s and run the grid again to resume%n",
+                              failed.get(), dir);
+        }
+        return failed.get() == 0;
+    }
+
+    /**
+     * Checks that the cells in the directory were made by the same code and Java version
+     * as this grid, and writes the manifest if there are no cells yet.
+     * @return true if the grid can resume from the cells in the directory.
+     * @throws IOException if the manifest or the classes cannot be read, or the manifest cannot be written.
+     */
+    private boolean checkManifest() throws IOException {
+        Path file = dir.resolve(MANIFEST);
+        List<String> manifest = List.of("code " + codeVersion(), "java " + System.getProperty("java.version"));
+        if (Files.exists(file)) {
+            if (Files.readAllLines(file).equals(manifest)) return true;
+            System.err.printf("	the cells in %s were made by other code or another Java version,%n", dir);
+        } else if (hasCells()) {
+            System.err.printf("	the cells in %s have no manifest, so the code that made them is unknown,%n", dir);
+        } else {
+            Files.write(file, manifest);
+            return true;
+        }
+        System.err.printf("	run the grid again and start it fresh to remove them%n");
+        return false;
+    }
+
+    /**
+     * @return true if the directory holds the csv of a cell.
+     * @throws IOException if the directory cannot be read.
+     */
+    private boolean hasCells() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*.csv")) {
+            return stream.iterator().hasNext();
+        }
+    }
+
+    /**
+     * Removes the csvs, logs and temporary files of the cells and the manifest from the
+     * directory, and leaves any other file in it alone.
+     * @throws IOException if a file cannot be removed.
+     */
+    private void clear() throws IOException {
+        int removed = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "{*.csv,*.csv.log,*.csv.tmp," + MANIFEST + "}")) {
+            for (Path file : stream) {
+                Files.delete(file);
+                removed++;
+            }
+        }
+        System.err.printf("	starting fresh, removed %d files from %s%n", removed, dir);
+    }
+
+    /**
+     * Hashes the class files of part1, or the jar they are loaded from, so cells made
+     * by different builds of the code get different versions.
+     * @return the SHA-256 of the classes in hex.
+     * @throws IOException if the classes cannot be read.
+     */
+    static String codeVersion() throws IOException {
+        MessageDigest sha;
+        Path code;
+        try {
+            sha = MessageDigest.getInstance("SHA-256");
+            code = Paths.get(GridRunner.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (NoSuchAlgorithmException | URISyntaxException e) {
+            throw new IOException("cannot hash the classes", e);
+        }
+        if (Files.isDirectory(code)) {
+            List<Path> classes = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(code.resolve("part1"), "*.class")) {
+                for (Path file : stream) classes.add(file);
+            }
+            classes.sort(null);
+            for (Path file : classes) {
+                sha.update(file.getFileName().toString().getBytes(StandardCharsets.UTF_8));
+                sha.update(Files.readAllBytes(file));
+            }
+        } else {
+            sha.update(Files.readAllBytes(code));
+        }
+        return HexFormat.of().formatHex(sha.digest());
+    }
+
+    /**
+     * Runs one cell in a forked JVM with the same classpath and JVM options as this one.
+     * The output of the JVM goes to a log next to the csv of the cell.
+     * @param cell the arguments of the job.
+     * @param cpu the CPU to pin the JVM to, -1 to not pin.
+     * @return true if the cell finished.
+     */
+    private boolean runCell(String[] cell, int cpu){
+        List<String> cmd = new ArrayList<>();
+        if (cpu >= 0) {
+            cmd.add("taskset");
+            cmd.add("-c");
+            cmd.add(Integer.toString(cpu));
+        }
+        cmd.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        cmd.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        cmd.add("-cp");
+        cmd.add(System.getProperty("java.class.path"));
+        cmd.add(Experiment.class.getName());
+        cmd.add("job");
+        for (String arg : cell) cmd.add(arg);
+
+        Path log = Paths.get(cell[0] + ".log");
+        Process process = null;
+        try {
+            process = new ProcessBuilder(cmd)
+                                .redirectErrorStream(true)
+                                .redirectOutput(log.toFile())
+                                .start();
+            running.add(process);
+            process.getOutputStream().close();
+            int exit = process.waitFor();
+            if (exit == 0 && Files.exists(Paths.get(cell[0]))) {
+                System.err.printf("\t\tfinished %s%n", Paths.get(cell[0]).getFileName());
+                return true;
+            }
+            System.err.printf("\t\t%s exited with %d%n", Paths.get(cell[0]).getFileName(), exit);
+        } catch (IOException e) {
+            System.err.printf("\t\tcould not start %s: %s%n", Paths.get(cell[0]).getFileName(), e.getMessage());
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        } finally {
+            if (process != null) running.remove(process);
+        }
+        return false;
+    }
+
+    /**
+     * Kills the JVMs of the cells that are running. A killed cell has not moved its
+     * csv into place, so it is run again when the grid is resumed.
+     */
+    private void killRunning(){
+        for (Process process : running) {
+            process.destroyForcibly();
+        }
+    }
+
+    /**
+     * Merges the csvs of the cells into one csv, with a single header and the rows in
+     * the order the cells were added.
+     * @param csv the file to merge into.
+     * @throws IOException if a cell csv cannot be read or the merged csv cannot be written.
+     */
+    void merge(Path csv) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(csv)) {
+            boolean header = true;
+            for (Path file : files) {
+                List<String> lines = Files.readAllLines(file);
+                for (int i = header ? 0 : 1; i < lines.size(); i++) {
+                    out.write(lines.get(i));
+                    out.write('\n');
+                }
+                header = false;
+            }
+        }
+        System.err.printf("*** Merged %d cells into %s ***%n", files.size(), csv);
+    }
+
+    /**
+     * Parses a list of CPUs such as 0-3,6.
+     * @param list the CPUs, ranges are inclusive.
+     * @return the CPUs in the order given.
+     */
+    static int[] parseCpus(String list){
+        List<Integer> cpus = new ArrayList<>();
+        for (String part : list.split(",")) {
+            String[] range = part.trim().split("-");
+            int from = Integer.parseInt(range[0].trim());
+            int to = range.length > 1 ? Integer.parseInt(range[1].trim()) : from;
+            for (int c = from; c <= to; c++) cpus.add(c);
+        }
+        int[] a = new int[cpus.size()];
+        for (int i = 0; i < a.length; i++) a[i] = cpus.get(i);
+        return a;
+    }
+}
@@ -0,0 +1,260 @@
+package part1;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a built SortedArray or OtherArray to a binary image on disk, and opens
+ * such an image again as a Skewed Binary Search Tree (sbst) that answers the
+ * queries straight from a read-only memory mapping of the file. Opening an image
+ * does not read the keys, so it takes the same time for any n, and processes that
+ * open the same image share the page cache.
+ *
+ * The image is a header followed by the int array of the sbst, all little endian:
+ * [magic, kind, n, length, min, max, p, alpha (as a double), the ints].
+ */
+public class IndexImage {
+
+    private static final int MAGIC = 0x53425354;
+    private static final int SORTED_ARRAY = 1;
+    private static final int OTHER_ARRAY = 2;
+    private static final int HEADER = 40;
+
+    /**
+     * Writes the image of a SortedArray.
+     * @param sa the SortedArray to be written.
+     * @param file the file to write the image to.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void write(SortedArray sa, Path file) throws IOException {
+        write(file, SORTED_ARRAY, sa.S.length, sa.S, sa.S[0], sa.S[sa.S.length - 1], 0, sa.alpha);
+    }
+
+    /**
+     * Writes the image of an OtherArray.
+     * @param oa the OtherArray to be written.
+     * @param file the file to write the image to.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void write(OtherArray oa, Path file) throws IOException {
+        write(file, OTHER_ARRAY, oa.set.length / 3, oa.set, oa.min, oa.max, oa.p, oa.alpha);
+    }
+
+    /**
+     * Writes the header and then the ints through a reused buffer.
+     */
+    private static void write(Path file, int kind, int n, int[] data, int min, int max,
+                                int p, double alpha) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(kind).putInt(n).putInt(data.length)
+                  .putInt(min).putInt(max).putInt(p).putDouble(alpha);
+            header.clear();
+            writeFully(ch, header);
+
+            ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            IntBuffer ints = buf.asIntBuffer();
+            for (int i = 0; i < data.length; ) {
+                int len = Math.min(ints.capacity(), data.length - i);
+                ints.clear();
+                ints.put(data, i, len);
+                buf.clear().limit(4 * len);
+                writeFully(ch, buf);
+                i += len;
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) ch.write(buf);
+    }
+
+    /**
+     * Opens an image written by write as an sbst.
+     * @param file the image.
+     * @return the sbst answering from the mapped image.
+     * @throws IOException if the file cannot be read or is not an image.
+     */
+    public static SkewedBST open(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (ch.read(header) < 0) throw new IOException(file + " is not an index image");
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) throw new IOException(file + " is not an index image");
+            int kind = header.getInt();
+            int n = header.getInt();
+            int length = header.getInt();
+            int min = header.getInt();
+            int max = header.getInt();
+            header.getInt(); // p, only needed to rebuild
+            double alpha = header.getDouble();
+            if (ch.size() < HEADER + 4L * length) throw new IOException(file + " is truncated");
+
+            // the mapping stays valid after the channel is closed
+            Ints data = new Ints(ch, length);
+            if (kind == SORTED_ARRAY) return new MappedSortedArray(data, n, alpha);
+            if (kind == OTHER_ARRAY) return new MappedOtherArray(data, min, max);
+            throw new IOException(file + " has an unknown kind " + kind);
+        }
+    }
+
+    /**
+     * The ints of a mapped image. A single mapping is limited to 2GB, so the
+     * ints are mapped in chunks of 2^28 ints (1GB).
+     */
+    private static class Ints {
+        private static final int SHIFT = 28;
+        private static final int MASK = (1 << SHIFT) - 1;
+
+        private final IntBuffer[] chunks;
+
+        Ints(FileChannel ch, int length) throws IOException {
+            chunks = new IntBuffer[(int)(((long) length + MASK) >>> SHIFT)];
+            for (int c = 0; c < chunks.length; c++) {
+                long first = (long) c << SHIFT;
+                long size = Math.min(MASK + 1L, length - first);
+                chunks[c] = ch.map(FileChannel.MapMode.READ_ONLY, HEADER + 4 * first, 4 * size)
+                              .order(ByteOrder.LITTLE_ENDIAN)
+                              .asIntBuffer();
+            }
+        }
+
+        int get(int i){
+            return chunks[i >>> SHIFT].get(i & MASK);
+        }
+    }
+
+    /**
+     * The search of SortedArray over a mapped image.
+     */
+    private static class MappedSortedArray implements SkewedBST {
+        private final Ints S;
+        private final int n;
+        private final double alpha;
+
+        MappedSortedArray(Ints S, int n, double alpha){
+            this.S = S;
+            this.n = n;
+            this.alpha = alpha;
+        }
+
+        public int pred(int x){
+            int lo = 0;
+            int hi = n - 1;
+            int last = S.get(n - 1);
+
+            if (x < S.get(0)) return NONE;
+            if (x > last) return last;
+            while (true) {
+                int mid = (int)(lo + (hi - lo) * alpha);
+
+                if (lo > hi) return S.get(mid);
+
+                int k = S.get(mid);
+                if      (x < k) hi = mid - 1;
+                else if (x > k) lo = mid + 1;
+                else return k;
+            }
+        }
+
+        public void pred(int[] queries, int[] out, int from, int to){
+            for (int i = from; i < to; i++) {
+                out[i] = pred(queries[i]);
+            }
+        }
+
+        public int min(){
+            return S.get(0);
+        }
+
+        public String name(){
+            return SortedArray.class.getName() + "Mapped";
+        }
+    }
+
+    /**
+     * The search of OtherArray over a mapped image.
+     */
+    private static class MappedOtherArray implements SkewedBST {
+        private final Ints set;
+        private final int min, max;
+
+        MappedOtherArray(Ints set, int min, int max){
+            this.set = set;
+            this.min = min;
+            this.max = max;
+        }
+
+        public int pred(int x){
+            int pos = 1;
+            int k = set.get(pos);
+            int y = NONE;
+
+            if (x < min) return NONE;
+            if (x > max) return max;
+
+            while (true) {
+                if (x < k) pos = set.get(pos-1);
+                if (x > k) pos = set.get(pos+1);
+
+                if (k == x) return k;
+                if (k < x) y = k;
+
+                if (pos == -1) return y;
+
+                k = set.get(pos);
+            }
+        }
+
+        public void pred(int[] queries, int[] out, int from, int to){
+            for (int i = from; i < to; i++) {
+                out[i] = pred(queries[i]);
+            }
+        }
+
+        public int min(){
+            return min;
+        }
+
+        public String name(){
+            return OtherArray.class.getName() + "Mapped";
+        }
+    }
+
+    /**
+     * Either builds an image from the set on stdin, or answers the queries on stdin
+     * from an image.
+     *     build sa|oa file   reads n and the set, and writes the image to file.
+     *     query file         reads the queries and answers them from the image in file.
+     */
+    public static void main(String[] args) {
+        double alpha = 0.4;
+        int p = 21;
+        int threads = Runtime.getRuntime().availableProcessors();
+        try {
+            if (args.length == 3 && args[0].equals("build")) {
+                InputReader.readInt();
+                int[] elems = InputReader.readElems();
+                Path file = Paths.get(args[2]);
+                if (args[1].equals("sa")) write(new SortedArray(elems, alpha), file);
+                else if (args[1].equals("oa")) write(new OtherArray(elems, alpha, p), file);
+                else System.err.printf("%s is not recognised, use sa or oa%n", args[1]);
+            } else if (args.length == 2 && args[0].equals("query")) {
+                InputReader.runOp(open(Paths.get(args[1])), threads);
+            } else {
+                System.err.println("Usage: IndexImage build sa|oa file, or IndexImage query file");
+            }
+        } catch (IOException e) {
+            System.err.printf("Something went wrong with the index image: %s%n", e.getMessage());
+        }
+    }
+}
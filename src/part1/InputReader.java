@@ -1,16 +1,26 @@
 package part1;
 
-import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.Arrays;
 
 /**
- * Reads and formats the input needed for part1.
+ * Reads and formats the input needed for part1. The input is parsed straight
+ * from the bytes of stdin, and the queries are answered and written out a chunk
+ * at a time, so the memory used does not grow with the number of queries.
  */
 public class InputReader{
 
-    static private BufferedReader br;
+    // the number of queries answered at a time
+    private static final int CHUNK = 1 << 20;
+
+    static private FileChannel in;
+    static private ByteBuffer buf;
+    static private boolean endOfLine;
+    static private int n = -1;
 
     /**
      * Reads in an int from stdin. Normally the size of the set.
@@ -18,51 +28,247 @@ public class InputReader{
      */
     public static int readInt(){
         try{
-            br = new BufferedReader(new InputStreamReader(System.in));
-            int n = Integer.parseInt(br.readLine());
+            n = nextInt();
+            skipLine();
             return n;
-        } catch (IOException e){
+        } catch (IOException | NumberFormatException e){
             System.err.println("Something went wrong when reading in n.");
             return -1;
         }
     }
-    
+
     /**
      * Reads in all the elements contained in the set from stdin.
      * @return the elements as an array
      */
     public static int[] readElems(){
         try{
-            if(br==null){
-                br = new BufferedReader(new InputStreamReader(System.in));
+            int[] elems = new int[n > 0 ? n : 16];
+            int len = 0;
+            while (hasNextOnLine()) {
+                if (len == elems.length) elems = Arrays.copyOf(elems, 2 * len);
+                elems[len++] = nextInt();
             }
-            int[] elems = Arrays.stream(br.readLine().split(" "))
-                            .mapToInt(Integer::parseInt)
-                            .toArray();
-            return elems;
-        } catch (IOException e){
+            skipLine();
+            return len == elems.length ? elems : Arrays.copyOf(elems, len);
+        } catch (IOException | NumberFormatException e){
             System.err.println("Something went wrong when reading in the elements of the Skewed Binary Tree.");
             return new int[]{-1};
         }
     }
 
+    /**
+     * Reads in all the elements contained in the set from stdin as longs.
+     * @return the elements as an array
+     */
+    public static long[] readLongElems(){
+        try{
+            long[] elems = new long[n > 0 ? n : 16];
+            int len = 0;
+            while (hasNextOnLine()) {
+                if (len == elems.length) elems = Arrays.copyOf(elems, 2 * len);
+                elems[len++] = nextLong();
+            }
+            skipLine();
+            return len == elems.length ? elems : Arrays.copyOf(elems, len);
+        } catch (IOException | NumberFormatException e){
+            System.err.println("Something went wrong when reading in the elements of the Skewed Binary Tree.");
+            return new long[]{-1};
+        }
+    }
+
     /**
      * Reads from std all the operations to be performed on the Skewed Binary Tree (sbst).
      * @param st the sbst to be checked.
      */
     public static void runOp(SkewedBST st){
+        runOp(st, 1);
+    }
+
+    /**
+     * Reads from std all the operations to be performed on the Skewed Binary Tree (sbst),
+     * and answers them on the given number of threads.
+     * @param st the sbst to be checked.
+     * @param threads the number of threads answering the queries.
+     */
+    public static void runOp(SkewedBST st, int threads){
+        ParallelPred pp = threads == 1 ? null : new ParallelPred(threads);
         try{
-            if(br==null){
-                br = new BufferedReader(new InputStreamReader(System.in));
+            int[] queries = new int[CHUNK];
+            int[] out = new int[CHUNK];
+            OutputWriter ow = new OutputWriter();
+            StringBuilder sb = new StringBuilder();
+            while (hasNextOnLine()) {
+                int len = 0;
+                while (len < CHUNK && hasNextOnLine()) {
+                    queries[len++] = nextInt();
+                }
+                // a chunk is answered and formatted from one version of a SnapshotIndex
+                SkewedBST view = st.snapshot();
+                if (pp == null) view.pred(queries, out, 0, len);
+                else pp.pred(view, queries, out, 0, len);
+                for (int i = 0; i < len; i++) {
+                    sb.setLength(0);
+                    ow.write(view.appendPred(sb, queries[i], out[i]));
+                }
             }
-            String[] queries = br.readLine().split(" ");
+            ow.write('\n').flush();
+        } catch (IOException | NumberFormatException e){
+            System.err.println("Something went wrong when reading the queries.");
+        } finally {
+            if (pp != null) pp.shutdown();
+        }
+    }
+
+    /**
+     * Reads from std all the operations to be performed on the Skewed Binary Tree (sbst)
+     * with long keys.
+     * @param st the sbst to be checked.
+     */
+    public static void runOp(LongSkewedBST st){
+        runOp(st, 1);
+    }
+
+    /**
+     * Reads from std all the operations to be performed on the Skewed Binary Tree (sbst)
+     * with long keys, and answers them on the given number of threads.
+     * @param st the sbst to be checked.
+     * @param threads the number of threads answering the queries.
+     */
+    public static void runOp(LongSkewedBST st, int threads){
+        LongParallelPred pp = threads == 1 ? null : new LongParallelPred(threads);
+        try{
+            long[] queries = new long[CHUNK];
+            long[] out = new long[CHUNK];
+            OutputWriter ow = new OutputWriter();
             StringBuilder sb = new StringBuilder();
-            for(int i = 0 ; i < queries.length;i++){
-                sb.append(st.Pred(Integer.parseInt(queries[i])));
+            while (hasNextOnLine()) {
+                int len = 0;
+                while (len < CHUNK && hasNextOnLine()) {
+                    queries[len++] = nextLong();
+                }
+                LongSkewedBST view = st.snapshot();
+                if (pp == null) view.pred(queries, out, 0, len);
+                else pp.pred(view, queries, out, 0, len);
+                for (int i = 0; i < len; i++) {
+                    sb.setLength(0);
+                    ow.write(view.appendPred(sb, queries[i], out[i]));
+                }
             }
-            System.out.println(sb);
-        } catch (IOException e){
+            ow.write('\n').flush();
+        } catch (IOException | NumberFormatException e){
             System.err.println("Something went wrong when reading the queries.");
+        } finally {
+            if (pp != null) pp.shutdown();
+        }
+    }
+
+    /**
+     * Makes sure there is at least one unread byte in the buffer, unless stdin has ended.
+     * @return false if stdin has ended.
+     */
+    private static boolean fill() throws IOException {
+        if (buf == null) {
+            in = new FileInputStream(FileDescriptor.in).getChannel();
+            buf = ByteBuffer.allocateDirect(1 << 16);
+            buf.flip();
+        }
+        while (!buf.hasRemaining()) {
+            buf.clear();
+            int read = in.read(buf);
+            buf.flip();
+            if (read < 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Skips the spaces before the next int on the current line.
+     * @return true if there is another int on the current line.
+     */
+    private static boolean hasNextOnLine() throws IOException {
+        if (endOfLine) return false;
+        while (fill()) {
+            byte b = buf.get(buf.position());
+            if (b == '\n') {
+                endOfLine = true;
+                return false;
+            }
+            if (b != ' ' && b != '\r' && b != '\t') return true;
+            buf.get();
+        }
+        endOfLine = true;
+        return false;
+    }
+
+    /**
+     * Moves past the end of the current line.
+     */
+    private static void skipLine() throws IOException {
+        while (fill()) {
+            if (buf.get() == '\n') break;
+        }
+        endOfLine = false;
+    }
+
+    /**
+     * Parses the next int on the current line.
+     * @return the int
+     */
+    private static int nextInt() throws IOException {
+        long value = nextLong();
+        if (value != (int) value) throw new NumberFormatException("int out of range");
+        return (int) value;
+    }
+
+    /**
+     * Parses the next long on the current line.
+     * @return the long
+     */
+    private static long nextLong() throws IOException {
+        if (!hasNextOnLine()) throw new NumberFormatException("expected a number");
+        boolean negative = buf.get(buf.position()) == '-';
+        if (negative) buf.get();
+        // accumulated as a negative number, so Long.MIN_VALUE can be read
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long value = 0;
+        int digits = 0;
+        while (fill()) {
+            int d = buf.get(buf.position()) - '0';
+            if (d < 0 || d > 9) break;
+            buf.get();
+            if (value < limit / 10) throw new NumberFormatException("long out of range");
+            value *= 10;
+            if (value < limit + d) throw new NumberFormatException("long out of range");
+            value -= d;
+            digits++;
+        }
+        if (digits == 0) throw new NumberFormatException("expected a number");
+        return negative ? value : -value;
+    }
+
+    /**
+     * Writes the answers, as formatted by appendPred, as ASCII through a reused byte buffer.
+     */
+    private static class OutputWriter {
+        private final byte[] bytes = new byte[1 << 16];
+        private int len;
+
+        OutputWriter write(char c){
+            if (len == bytes.length) flush();
+            bytes[len++] = (byte) c;
+            return this;
+        }
+
+        OutputWriter write(CharSequence s){
+            for (int i = 0; i < s.length(); i++) write(s.charAt(i));
+            return this;
+        }
+
+        void flush(){
+            System.out.write(bytes, 0, len);
+            System.out.flush();
+            len = 0;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,199 @@
+// Generated by template/specialize.sh from template/KeyKaryArray.java.tmpl, edit the template instead.
+package part1;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of a Skewed Binary Search Tree with k-ary nodes. A node holds
+ * up to k - 1 keys of the skewed tree, the heaviest ones of its subtree like in
+ * a pqDFS block, so alpha decides which keys end up as separators. The keys of
+ * a node are compared to the query all at once, and the number of keys smaller
+ * than or equal to the query picks the child, which cuts the depth of the tree
+ * by a factor of about log2(k).
+ * A node with c keys is stored as its header c followed by the keys, and unless
+ * it is a leaf by its c + 1 children, where a missing child is -1. A leaf stores
+ * -c as its header and no children. The heaviest keys leave many small ranges
+ * below a node, so most nodes are leaves with few keys, and a node only takes
+ * the positions it uses, 2c + 2 for an inner node and c + 1 for a leaf.
+ */
+public class KaryArray implements SkewedBST {
+
+    // the largest array the VM can allocate
+    private static final int MAX_SIZE = Integer.MAX_VALUE - 8;
+
+    int[] set;
+    int k;
+    int min;
+    int max;
+
+    /**
+     * Initializes a KaryArray, all building occurs in the constructor.
+     * @param elems the elements to be added.
+     * @param alpha decides how skewed the binary search tree is going to be.
+     * @param k the number of children of a node, 64 / Integer.BYTES fills a cache line with keys.
+     */
+    public KaryArray(int[] elems, double alpha, int k){
+        if (k < 2) throw new IllegalArgumentException("k has to be larger than 1");
+        Arrays.parallelSort(elems);
+        this.k = k;
+        min = elems[0];
+        max = elems[elems.length - 1];
+        build(elems, alpha);
+    }
+
+    /**
+     * Lays the nodes out in breadth-first order. A node is the range [lo, hi] of
+     * the sorted set that its subtree spans. The size of a node is only known once
+     * its keys are chosen, so each range in the queue carries the position in set
+     * that should point to it, which is filled in when the node is placed.
+     * @param S the sorted set.
+     * @param alpha decides how skewed the binary search tree is going to be.
+     */
+    private void build(int[] S, double alpha){
+        int n = S.length;
+        int[] los = new int[n];
+        int[] his = new int[n];
+        int[] slots = new int[n];
+        int head = 0, tail = 0;
+        int[] sep = new int[k - 1];
+        int[] candLo = new int[k];
+        int[] candHi = new int[k];
+        set = new int[(int) Math.min(4L * n + 2 * k, MAX_SIZE)];
+        int size = 0;
+
+        los[tail] = 0;
+        his[tail] = n - 1;
+        slots[tail] = -1;
+        tail++;
+        while (head < tail) {
+            int lo = los[head];
+            int hi = his[head];
+            int slot = slots[head];
+            head++;
+
+            // the k - 1 heaviest nodes of the subtree are its separators
+            int m = 0, cands = 1;
+            candLo[0] = lo;
+            candHi[0] = hi;
+            while (m < k - 1 && cands > 0) {
+                int heaviest = 0;
+                for (int c = 1; c < cands; c++) {
+                    if (candHi[c] - candLo[c] > candHi[heaviest] - candLo[heaviest]) heaviest = c;
+                }
+                int l = candLo[heaviest], h = candHi[heaviest];
+                int mid = (int)(l + (h - l) * alpha);
+                sep[m++] = mid;
+                cands--;
+                candLo[heaviest] = candLo[cands];
+                candHi[heaviest] = candHi[cands];
+                if (l <= mid - 1) { candLo[cands] = l; candHi[cands] = mid - 1; cands++; }
+                if (mid + 1 <= h) { candLo[cands] = mid + 1; candHi[cands] = h; cands++; }
+            }
+            Arrays.sort(sep, 0, m);
+
+            // a leaf holds every key of its range
+            boolean leaf = m == hi - lo + 1;
+            int base = size;
+            ensureCapacity((long) base + (leaf ? m + 1 : 2 * m + 2));
+            if (slot != -1) set[slot] = base;
+            set[base] = leaf ? -m : m;
+            for (int j = 0; j < m; j++) {
+                set[base + 1 + j] = S[sep[j]];
+            }
+            if (leaf) {
+                size = base + m + 1;
+                continue;
+            }
+
+            // the children are the ranges between the separators
+            for (int j = 0; j <= m; j++) {
+                int l = j == 0 ? lo : sep[j - 1] + 1;
+                int h = j == m ? hi : sep[j] - 1;
+                set[base + 1 + m + j] = -1;
+                if (l > h) continue;
+                los[tail] = l;
+                his[tail] = h;
+                slots[tail] = base + 1 + m + j;
+                tail++;
+            }
+            size = base + 2 * m + 2;
+        }
+        set = Arrays.copyOf(set, size);
+    }
+
+    /**
+     * Grows set to hold at least the given number of positions.
+     * @param size the number of positions needed.
+     */
+    private void ensureCapacity(long size){
+        if (size <= set.length) return;
+        if (size > MAX_SIZE) throw new IllegalArgumentException("the set is too large for a KaryArray");
+        set = Arrays.copyOf(set, (int) Math.min(Math.max(size, 2L * set.length), MAX_SIZE));
+    }
+
+    /**
+     * Finds and returns the value y in the tree such that y <= x.
+     * Worst case is O(log(n)), best case is O(1) if x is outside
+     * the range of the set (not considering memory).
+     * @param x the value to be queried.
+     * @return the value if there is one, if not NONE.
+     */
+    public int pred(int x){
+        if (x < min) return NONE;
+        if (x >= max) return max;
+        return search(x);
+    }
+
+    /**
+     * Walks from the root node down. The keys of a node are counted without
+     * branches, and the count picks the child.
+     * @param x the value to be queried, min <= x < max.
+     * @return the largest key y such that y <= x.
+     */
+    private int search(int x){
+        int[] a = set;
+        int base = 0;
+        int y = min;
+        while (true) {
+            int m = a[base];
+            int keys = Math.abs(m);
+            int c = 0;
+            for (int j = 1; j <= keys; j++) {
+                c += a[base + j] <= x ? 1 : 0;
+            }
+            if (c > 0) y = a[base + c];
+            if (m < 0) return y;
+            base = a[base + 1 + m + c];
+            if (base == -1) return y;
+        }
+    }
+
+    /**
+     * Answers pred for the queries from index from to index to.
+     * @param queries the values to be queried.
+     * @param out where the answer to queries[i] is written to out[i].
+     * @param from the first query to answer, inclusive.
+     * @param to the last query to answer, exclusive.
+     */
+    public void pred(int[] queries, int[] out, int from, int to){
+        for (int i = from; i < to; i++) {
+            out[i] = pred(queries[i]);
+        }
+    }
+
+    /**
+     * @return the smallest value in the set.
+     */
+    public int min(){
+        return min;
+    }
+
+    public static void main(String[] args) {
+        double alpha = 0.4;
+        int k = 64 / Integer.BYTES;
+        int threads = Runtime.getRuntime().availableProcessors();
+        InputReader.readInt();
+        KaryArray st = new KaryArray(InputReader.readElems(), alpha, k);
+        InputReader.runOp(st, threads);
+    }
+}
@@ -0,0 +1,282 @@
+// Generated by template/specialize.sh from template/KeyBigOtherArray.java.tmpl, edit the template instead.
+package part1;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * The pqDFS layout of LongOtherArray for sets too large for one int array. LongOtherArray
+ * keeps 3 longs per key in a single long[], so it cannot hold more than about
+ * 715M keys. Here the layout is split into segments of 2^26 nodes, so it is only
+ * limited by the number of keys a sorted long[] can hold.
+ *
+ * The nodes are the same [left, key, right] triples in the same pqDFS order with
+ * the same p-blocks, but a child is stored as its node number instead of its index
+ * in the array, and node v is found at 3 * (v mod 2^26) in segment v / 2^26. A
+ * segment holds whole nodes, so a node never spans two segments.
+ *
+ * The segments are either ordinary long arrays or direct buffers, which are allocated
+ * outside the GC heap so a multi-GB layout is never copied or scanned by the GC.
+ * Direct buffers are limited by -XX:MaxDirectMemorySize, which has to be raised to
+ * the size of the layout, 3 * Long.BYTES bytes per key.
+ *
+ * LongOtherArray stays the faster choice while the set fits, as it reads the plain array.
+ */
+public class LongBigOtherArray implements LongSkewedBST {
+
+    private static final int SHIFT = 26;
+    private static final int MASK = (1 << SHIFT) - 1;
+
+    private final LongBuffer[] segments;
+    final boolean offHeap;
+    int node;
+    long min;
+    long max;
+    double alpha;
+    int p;
+
+    // the heaps of the blocks being laid out, only used while building
+    private int[] heapLo, heapHi, heapSlot, heapSize;
+    private int cap;
+
+    /**
+     * Initializes a LongBigOtherArray, all building occurs in the constructor.
+     * @param elems the elements to be added.
+     * @param alpha decides how skewed the binary search tree is going to be.
+     * @param p the size of each block.
+     * @param offHeap true to keep the layout in direct buffers outside the GC heap.
+     */
+    public LongBigOtherArray(long[] elems, double alpha, int p, boolean offHeap){
+        if (p < 1) throw new IllegalArgumentException("p has to be larger than 0");
+        Arrays.parallelSort(elems);
+        int n = elems.length;
+        this.offHeap = offHeap;
+        segments = new LongBuffer[(int)(((long) n + MASK) >>> SHIFT)];
+        for (int s = 0; s < segments.length; s++) {
+            int nodes = Math.min(MASK + 1, n - (s << SHIFT));
+            segments[s] = offHeap ? ByteBuffer.allocateDirect(3 * Long.BYTES * nodes).order(ByteOrder.nativeOrder()).asLongBuffer()
+                                  : LongBuffer.wrap(new long[3 * nodes]);
+        }
+        pqDFS(elems, alpha, p);
+        min = elems[0];
+        max = elems[n - 1];
+        this.alpha = alpha;
+        this.p = p;
+    }
+
+    /**
+     * Finds and returns the value y in the tree such that y <= x.
+     * Worst case is O(log(n)), best case is O(1) if x is outside
+     * the range of the set. (not considering memory)
+     * @param x the value to be queried.
+     * @return the value if there is one, if not NONE.
+     */
+    public long pred(long x){
+        if (x < min) return NONE;
+        if (x > max) return max;
+
+        LongBuffer[] segments = this.segments;
+        long y = NONE;
+        int v = 0;
+        while (true) {
+            LongBuffer seg = segments[v >>> SHIFT];
+            int pos = 3 * (v & MASK);
+            long k = seg.get(pos + 1);
+
+            if (x < k) v = (int) seg.get(pos);
+            else if (x > k) {
+                y = k;
+                v = (int) seg.get(pos + 2);
+            }
+            else return k;
+
+            if (v == -1) return y;
+        }
+    }
+
+    /**
+     * Answers pred for the queries from index from to index to.
+     * @param queries the values to be queried.
+     * @param out where the answer to queries[i] is written to out[i].
+     * @param from the first query to answer, inclusive.
+     * @param to the last query to answer, exclusive.
+     */
+    public void pred(long[] queries, long[] out, int from, int to){
+        for (int i = from; i < to; i++) {
+            out[i] = pred(queries[i]);
+        }
+    }
+
+    /**
+     * @return the smallest value in the set.
+     */
+    public long min(){
+        return min;
+    }
+
+    /**
+     * @return the number of bytes of the layout.
+     */
+    public long bytes(){
+        return 3L * Long.BYTES * node;
+    }
+
+    public String name(){
+        return offHeap ? getClass().getName() + "OffHeap" : getClass().getName();
+    }
+
+    /**
+     * Writes one position of the layout.
+     * @param v the number of the node.
+     * @param field 0 for the left child, 1 for the key and 2 for the right child.
+     * @param value the key or child to be written.
+     */
+    private void set(int v, int field, long value){
+        segments[v >>> SHIFT].put(3 * (v & MASK) + field, value);
+    }
+
+    /**
+     * Lays out the nodes in the order of LongOtherArray.pqDFS. The slot of a node is the
+     * number of its parent and the side it hangs on, 2 * parent for the left child
+     * and 2 * parent + 1 for the right, read as an unsigned int. A sorted long[] holds
+     * fewer than 2^31 - 1 keys, so -1 is never the slot of a node.
+     * @param S the sorted set.
+     * @param alpha decides how skewed the binary search tree is going to be.
+     * @param p the size of the block
+     */
+    private void pqDFS(long[] S, double alpha, int p){
+        cap = Math.min(p, S.length) + 1;
+        heapSize = new int[16];
+        heapLo = new int[16 * cap];
+        heapHi = new int[16 * cap];
+        heapSlot = new int[16 * cap];
+
+        int top = 0;
+        offer(top, 0, S.length - 1, -1);
+        fillBlock(top, S, alpha, p);
+        while (top >= 0) {
+            if (heapSize[top] == 0) {
+                top--;
+                continue;
+            }
+            int base = top * cap;
+            int lo = heapLo[base], hi = heapHi[base], slot = heapSlot[base];
+            poll(top);
+            top++;
+            if (top == heapSize.length) growHeaps();
+            heapSize[top] = 0;
+            offer(top, lo, hi, slot);
+            fillBlock(top, S, alpha, p);
+        }
+        heapLo = heapHi = heapSlot = heapSize = null;
+    }
+
+    /**
+     * Lays out the p heaviest nodes of the given heap, adding the children of
+     * each node to the heap as it is placed.
+     * @param h the heap of the block.
+     * @param S the sorted set.
+     * @param alpha decides how skewed the binary search tree is going to be.
+     * @param p the size of the block
+     */
+    private void fillBlock(int h, long[] S, double alpha, int p){
+        int base = h * cap;
+        for (int i = 0; i < p; i++) {
+            if (heapSize[h] == 0) return;
+            int lo = heapLo[base], hi = heapHi[base], slot = heapSlot[base];
+            poll(h);
+
+            int mid = (int)(lo + (hi - lo) * alpha);
+            set(node, 0, -1);
+            set(node, 1, S[mid]);
+            set(node, 2, -1);
+            if (slot != -1) set(slot >>> 1, 2 * (slot & 1), node);
+            if (mid + 1 <= hi) offer(h, mid + 1, hi, 2 * node + 1);
+            if (lo <= mid - 1) offer(h, lo, mid - 1, 2 * node);
+            node++;
+        }
+    }
+
+    /**
+     * Adds a node to the given heap. Mirrors the sift up of java.util.PriorityQueue,
+     * so nodes of equal weight are laid out in the same order as with a PriorityQueue.
+     * @param h the heap to add to.
+     * @param lo the lowest index of the node's range.
+     * @param hi the highest index of the node's range.
+     * @param slot the side of the parent that should point to the node, -1 if none.
+     */
+    private void offer(int h, int lo, int hi, int slot){
+        int base = h * cap;
+        int w = hi - lo;
+        int k = heapSize[h]++;
+        while (k > 0) {
+            int parent = (k - 1) >>> 1;
+            if (heapHi[base + parent] - heapLo[base + parent] >= w) break;
+            move(base + parent, base + k);
+            k = parent;
+        }
+        heapLo[base + k] = lo;
+        heapHi[base + k] = hi;
+        heapSlot[base + k] = slot;
+    }
+
+    /**
+     * Removes the heaviest node from the given heap. Mirrors the sift down of
+     * java.util.PriorityQueue.
+     * @param h the heap to remove from.
+     */
+    private void poll(int h){
+        int base = h * cap;
+        int n = --heapSize[h];
+        if (n == 0) return;
+        int lo = heapLo[base + n], hi = heapHi[base + n], slot = heapSlot[base + n];
+        int w = hi - lo;
+        int k = 0;
+        int half = n >>> 1;
+        while (k < half) {
+            int child = 2 * k + 1;
+            int right = child + 1;
+            if (right < n && heapHi[base + right] - heapLo[base + right]
+                            > heapHi[base + child] - heapLo[base + child]) child = right;
+            if (heapHi[base + child] - heapLo[base + child] <= w) break;
+            move(base + child, base + k);
+            k = child;
+        }
+        heapLo[base + k] = lo;
+        heapHi[base + k] = hi;
+        heapSlot[base + k] = slot;
+    }
+
+    /**
+     * Copies a heap entry from one position to another.
+     * @param from the position to copy from.
+     * @param to the position to copy to.
+     */
+    private void move(int from, int to){
+        heapLo[to] = heapLo[from];
+        heapHi[to] = heapHi[from];
+        heapSlot[to] = heapSlot[from];
+    }
+
+    /**
+     * Doubles the number of heaps that can be stacked.
+     */
+    private void growHeaps(){
+        int frames = heapSize.length * 2;
+        heapSize = Arrays.copyOf(heapSize, frames);
+        heapLo = Arrays.copyOf(heapLo, frames * cap);
+        heapHi = Arrays.copyOf(heapHi, frames * cap);
+        heapSlot = Arrays.copyOf(heapSlot, frames * cap);
+    }
+
+    public static void main(String[] args) {
+        double alpha = 0.4;
+        int p = 21;
+        int threads = Runtime.getRuntime().availableProcessors();
+        InputReader.readInt();
+        LongBigOtherArray st = new LongBigOtherArray(InputReader.readLongElems(), alpha, p, true);
+        InputReader.runOp(st, threads);
+    }
+}
@@ -0,0 +1,39 @@
+// Generated by template/specialize.sh from template/KeyNode.java.tmpl, edit the template instead.
+package part1;
+
+/**
+ * Node that can compared to other nodes.
+ */
+class LongNode implements Comparable<LongNode>{
+
+    long value;
+    int weight;
+    LongNode left, right;
+
+    /**
+     * Creates the node with a weight of 0 and the specified value.
+     * @param value the value contained in the node.
+     */
+    LongNode(long value){
+        this.value = value;
+        weight = 0;
+    }
+
+    /**
+     * Overloaded compareTo function. Enables comparison of nodes based on
+     * their weights.
+     * @param n the LongNode to be compared to
+     * @return -1 if this LongNode is less than n. 1 if this LongNode is larger than n. 0 if they are equal.
+     */
+     public int compareTo(LongNode n){
+         if(this.weight < n.weight){
+            return - 1;
+        }
+        else if(this.weight > n.weight){
+            return 1;
+        }
+        else{
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+// Generated by template/specialize.sh from template/KeyRangeCursor.java.tmpl, edit the template instead.
+package part1;
+
+/**
+ * Iterates the values of a set that lie in a range [lo, hi], in increasing order,
+ * as primitive longs. A cursor is reused for any number of ranges by seeking it
+ * again, so scanning a range allocates nothing.
+ */
+public interface LongRangeCursor {
+
+    /**
+     * Moves the cursor to the first value >= lo, the scan ends after the last value <= hi.
+     * @param lo the smallest value of the range, inclusive.
+     * @param hi the largest value of the range, inclusive.
+     */
+    void seek(long lo, long hi);
+
+    /**
+     * @return true if there is another value in the range.
+     */
+    boolean hasNext();
+
+    /**
+     * @return the next value in the range.
+     * @throws java.util.NoSuchElementException if the range has no more values.
+     */
+    long next();
+}
@@ -0,0 +1,1017 @@
+// Generated by template/specialize.sh from template/KeySearchTree.java.tmpl, edit the template instead.
+package part1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+/**
+ * Implemetation of Skewed Binary Search Tree that uses nodes
+ * to store the values. In compact mode the nodes are instead stored
+ * in parallel arrays, where a node is an index into keys, left, right
+ * and weight, and a missing child is -1. The root is rootNode, and the
+ * entries freed by updates are reused before the arrays grow.
+ */
+public class LongSearchTree implements LongRangeSkewedBST{
+
+    public LongNode root;
+    long max;
+    long min;
+    double alpha;
+
+    // ranges larger than this are built with their two subtrees in parallel
+    private static final int PARALLEL_CUTOFF = 1 << 16;
+
+    // how far, as a fraction of its weight, a subtree may drift from its alpha split
+    private static final double SLACK = 0.1;
+
+    // the nodes on the path of the last insert or delete
+    private LongNode[] path = new LongNode[64];
+
+    // the nodes in compact mode, null otherwise
+    long[] keys;
+    int[] left, right, weight;
+    int rootNode;
+
+    // compact mode: the entries in use are below used, and the freed ones among them are on the free list
+    private int used, freed;
+    private int[] free;
+
+    // the nodes on the path of the last insert or delete in compact mode
+    private int[] nodePath = new int[64];
+
+    // the largest number of nodes the arrays can hold
+    private static final int MAX_NODES = Integer.MAX_VALUE - 8;
+
+    private final SearchStats stats = SearchStats.ENABLED ? new SearchStats() : null;
+
+    /**
+     * Initializes an LongSearchTree, all building occurs in the constructor.
+     * @param elems the elements to be added.
+     * @param alpha decides how skewed the binary search tree is going to be.
+     */
+    public LongSearchTree(long[] elems, double alpha){
+        this(elems, alpha, false);
+    }
+
+    /**
+     * Initializes an LongSearchTree, all building occurs in the constructor.
+     * @param elems the elements to be added.
+     * @param alpha decides how skewed the binary search tree is going to be.
+     * @param compact whether the nodes are stored in arrays instead of LongNode objects.
+     */
+    public LongSearchTree(long[] elems, double alpha, boolean compact){
+        this.alpha = alpha;
+        long[] S = setS(elems);
+        if (compact) buildArrays(alpha, S);
+        else if (S.length <= PARALLEL_CUTOFF) root = buildTree(alpha, 0, S.length - 1, S);
+        else root = ForkJoinPool.commonPool().invoke(new BuildTask(alpha, 0, S.length - 1, S));
+    }
+
+    /**
+     * Sorts the set so it is easier to work with and assigns max
+     * and min values.
+     * @param elems the set to be sorted
+     * @return the sorted set
+     */
+    private long[] setS(long[] elems){
+        Arrays.parallelSort(elems);
+        min = elems[0];
+        max = elems[elems.length-1];
+        return elems;
+    }
+      
+    /**
+     * Recursively builds the Skewed Binary Search Tree (sbst)
+     * @param alpha defines the 'skewness' of the sbst - note alpha: 0.5 -> balanced Binary Search Tree
+     * @param lo lowest index 
+     * @param hi highest index
+     * @return root node of the sbst 
+     */
+    private LongNode buildTree(double alpha, int lo, int hi, long[] S){
+
+        if(lo > hi) return null;
+
+        int mid = (int)(lo + (hi - lo) * alpha);        
+        
+        LongNode node = new LongNode(S[mid]);
+
+        node.left = buildTree(alpha, lo, mid - 1, S);
+        node.right = buildTree(alpha, mid + 1, hi, S);
+
+        node.weight = size(node.left) + size(node.right) + 1;
+
+        return node;
+    }   
+
+    /**
+     * Builds the same tree as buildTree, with the two subtrees of every range
+     * larger than PARALLEL_CUTOFF built in parallel.
+     */
+    private class BuildTask extends RecursiveTask<LongNode> {
+        private static final long serialVersionUID = 1L;
+
+        private final double alpha;
+        private final int lo, hi;
+        private final long[] S;
+
+        BuildTask(double alpha, int lo, int hi, long[] S){
+            this.alpha = alpha;
+            this.lo = lo;
+            this.hi = hi;
+            this.S = S;
+        }
+
+        @Override
+        protected LongNode compute(){
+            if (hi - lo + 1 <= PARALLEL_CUTOFF) return buildTree(alpha, lo, hi, S);
+
+            int mid = (int)(lo + (hi - lo) * alpha);
+            LongNode node = new LongNode(S[mid]);
+            BuildTask leftTask = new BuildTask(alpha, lo, mid - 1, S);
+            leftTask.fork();
+            node.right = new BuildTask(alpha, mid + 1, hi, S).compute();
+            node.left = leftTask.join();
+            node.weight = size(node.left) + size(node.right) + 1;
+            return node;
+        }
+    }
+
+    /**
+     * Builds the same tree as buildTree into the arrays, with the nodes in the
+     * order buildTree creates them. The subtree of a range takes the next weight
+     * nodes in that order, its left subtree first, so the subtrees of large sets
+     * are built in parallel by an ArraysTask, each into its own nodes.
+     * @param alpha defines the 'skewness' of the sbst - note alpha: 0.5 -> balanced Binary Search Tree
+     * @param S the sorted set
+     */
+    private void buildArrays(double alpha, long[] S){
+        int n = S.length;
+        keys = new long[n];
+        left = new int[n];
+        right = new int[n];
+        weight = new int[n];
+        rootNode = 0;
+        used = n;
+        freed = 0;
+        free = new int[16];
+        fillRange(S, -1, 0);
+    }
+
+    /**
+     * Builds the whole of S into the nodes starting at first, see buildArrays.
+     * @param S the sorted set
+     * @param slot the parent's array, 0 for left and 1 for right, of the subtree, -1 for the root.
+     * @param first the node of the root of the subtree.
+     */
+    private void fillRange(long[] S, int slot, int first){
+        int n = S.length;
+        if (n <= PARALLEL_CUTOFF) fillArrays(alpha, S, 0, n - 1, slot, first);
+        else ForkJoinPool.commonPool().invoke(new ArraysTask(alpha, S, 0, n - 1, slot, first));
+    }
+
+    /**
+     * Builds the subtree of a range into the arrays, see buildArrays.
+     */
+    private class ArraysTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final double alpha;
+        private final long[] S;
+        private final int lo, hi, slot, first;
+
+        ArraysTask(double alpha, long[] S, int lo, int hi, int slot, int first){
+            this.alpha = alpha;
+            this.S = S;
+            this.lo = lo;
+            this.hi = hi;
+            this.slot = slot;
+            this.first = first;
+        }
+
+        @Override
+        protected void compute(){
+            if (hi - lo + 1 <= PARALLEL_CUTOFF) {
+                fillArrays(alpha, S, lo, hi, slot, first);
+                return;
+            }
+            int mid = (int)(lo + (hi - lo) * alpha);
+            keys[first] = S[mid];
+            left[first] = -1;
+            right[first] = -1;
+            weight[first] = hi - lo + 1;
+            link(slot, first);
+
+            // the left subtree takes the nodes right after the root, then the right subtree
+            List<ArraysTask> subtrees = new ArrayList<>(2);
+            if (lo <= mid - 1) subtrees.add(new ArraysTask(alpha, S, lo, mid - 1, first << 1, first + 1));
+            if (mid + 1 <= hi) subtrees.add(new ArraysTask(alpha, S, mid + 1, hi, first << 1 | 1, first + 1 + mid - lo));
+            invokeAll(subtrees);
+        }
+    }
+
+    /**
+     * Points the parent's array entry at slot to the node.
+     * @param slot the parent's array, 0 for left and 1 for right, -1 for the root.
+     * @param node the node.
+     */
+    private void link(int slot, int node){
+        if (slot == -1) return;
+        if ((slot & 1) == 0) left[slot >> 1] = node;
+        else right[slot >> 1] = node;
+    }
+
+    /**
+     * Builds the subtree of a range into the arrays, with its nodes starting at
+     * first. Uses a stack of the index ranges of the subtrees instead of recursion,
+     * and each range carries the index of the array entry that should point to it.
+     * @param alpha defines the 'skewness' of the sbst - note alpha: 0.5 -> balanced Binary Search Tree
+     * @param S the sorted set
+     * @param lo lowest index
+     * @param hi highest index
+     * @param slot the parent's array, 0 for left and 1 for right, of the subtree, -1 for the root.
+     * @param first the node of the root of the subtree.
+     */
+    private void fillArrays(double alpha, long[] S, int lo, int hi, int slot, int first){
+        // a range is [lo, hi] and the parent's array, 0 for left and 1 for right, at slot
+        int n = hi - lo + 1;
+        int[] stackLo = new int[n], stackHi = new int[n], stackSlot = new int[n];
+        int top = 0, next = first;
+        stackLo[0] = lo;
+        stackHi[0] = hi;
+        stackSlot[0] = slot;
+        while (top >= 0) {
+            lo = stackLo[top];
+            hi = stackHi[top];
+            slot = stackSlot[top];
+            top--;
+
+            int node = next++;
+            int mid = (int)(lo + (hi - lo) * alpha);
+            keys[node] = S[mid];
+            left[node] = -1;
+            right[node] = -1;
+            weight[node] = hi - lo + 1;
+            link(slot, node);
+
+            // the right subtree is pushed first so the left one is built first
+            if (mid + 1 <= hi) {
+                top++;
+                stackLo[top] = mid + 1;
+                stackHi[top] = hi;
+                stackSlot[top] = node << 1 | 1;
+            }
+            if (lo <= mid - 1) {
+                top++;
+                stackLo[top] = lo;
+                stackHi[top] = mid - 1;
+                stackSlot[top] = node << 1;
+            }
+        }
+    }
+
+    /**
+     * Finds and returns the value y in the tree such that y <= x.
+     * Worst case is O(log(n)), best case is O(1) if x is outside 
+     * the range of the set. (not considering memory)
+     * @param x the value to be queried.
+     * @return the value if there is one, if not NONE.
+     */
+    public long pred(long x){
+        if (SearchStats.ENABLED) return tracedPred(x);
+        if(!(x < min) && !(x > max)){
+            if (keys != null) return search(x);
+            return inOrderTraverse(root, x).value;
+        } else if (x < min){
+            return NONE;
+        } else {
+            return max;
+        }
+    }
+
+    /**
+     * pred that also records the query in stats. The nodes are not laid out in
+     * blocks, so no blocks are counted.
+     * @param x the value to be queried.
+     * @return the value if there is one, if not NONE.
+     */
+    private long tracedPred(long x){
+        int comparisons = 2, nodes = 0;
+        long y = NONE;
+        if (x < min) {
+            comparisons = 1;
+        } else if (x > max) {
+            y = max;
+        } else if (keys != null) {
+            int node = rootNode;
+            while (node != -1) {
+                long k = keys[node];
+                nodes++;
+                comparisons++;
+                if (x < k) {
+                    node = left[node];
+                    continue;
+                }
+                comparisons++;
+                y = k;
+                if (x == k) break;
+                node = right[node];
+            }
+        } else {
+            LongNode node = root;
+            while (node != null) {
+                nodes++;
+                comparisons++;
+                if (x < node.value) {
+                    node = node.left;
+                    continue;
+                }
+                comparisons++;
+                y = node.value;
+                if (x == node.value) break;
+                node = node.right;
+            }
+        }
+        stats.record(comparisons, nodes, 0);
+        return y;
+    }
+
+    /**
+     * Answers pred for the queries from index from to index to.
+     * @param queries the values to be queried.
+     * @param out where the answer to queries[i] is written to out[i].
+     * @param from the first query to answer, inclusive.
+     * @param to the last query to answer, exclusive.
+     */
+    public void pred(long[] queries, long[] out, int from, int to){
+        for (int i = from; i < to; i++) {
+            out[i] = pred(queries[i]);
+        }
+    }
+
+    /**
+     * Answers pred for sorted queries with a finger search. The path to the
+     * previous answer is kept on a stack together with the largest key smaller
+     * than each node's subtree, and the smallest key larger than it. A query
+     * only pops the nodes whose subtree it has passed and searches down from
+     * there, so each node is visited at most once and q queries take O(n + q).
+     * @param sorted the values to be queried, sorted.
+     * @param out where the answer to sorted[i] is written to out[i].
+     * @param from the first query to answer, inclusive.
+     * @param to the last query to answer, exclusive.
+     */
+    public void predSorted(long[] sorted, long[] out, int from, int to){
+        if (keys != null) {
+            predSortedCompact(sorted, out, from, to);
+            return;
+        }
+        LongNode[] path = new LongNode[64];
+        long[] below = new long[64];
+        long[] above = new long[64];
+        int top = 0;
+        path[0] = root;
+        below[0] = NONE;
+        above[0] = Long.MAX_VALUE;
+        for (int j = from; j < to; j++) {
+            long x = sorted[j];
+            if (x < min) { out[j] = NONE; continue; }
+            if (x > max) { out[j] = max; continue; }
+
+            while (top > 0 && x >= above[top]) top--;
+            LongNode node = path[top];
+            long y = below[top];
+            long a = above[top];
+            while (true) {
+                if (node.value == x) { y = x; break; }
+                LongNode next;
+                if (x < node.value) { next = node.left; a = node.value; }
+                else { next = node.right; y = node.value; }
+                if (next == null) break;
+                node = next;
+                if (++top == path.length) {
+                    path = Arrays.copyOf(path, 2 * top);
+                    below = Arrays.copyOf(below, 2 * top);
+                    above = Arrays.copyOf(above, 2 * top);
+                }
+                path[top] = node;
+                below[top] = y;
+                above[top] = a;
+            }
+            out[j] = y;
+        }
+    }
+
+    /**
+     * The finger search of predSorted over the arrays of compact mode.
+     */
+    private void predSortedCompact(long[] sorted, long[] out, int from, int to){
+        int[] nodes = new int[64];
+        long[] below = new long[64];
+        long[] above = new long[64];
+        int top = 0;
+        nodes[0] = rootNode;
+        below[0] = NONE;
+        above[0] = Long.MAX_VALUE;
+        for (int j = from; j < to; j++) {
+            long x = sorted[j];
+            if (x < min) { out[j] = NONE; continue; }
+            if (x > max) { out[j] = max; continue; }
+
+            while (top > 0 && x >= above[top]) top--;
+            int node = nodes[top];
+            long y = below[top];
+            long a = above[top];
+            while (true) {
+                long k = keys[node];
+                if (k == x) { y = k; break; }
+                int next;
+                if (x < k) { next = left[node]; a = k; }
+                else { next = right[node]; y = k; }
+                if (next == -1) break;
+                node = next;
+                if (++top == nodes.length) {
+                    nodes = Arrays.copyOf(nodes, 2 * top);
+                    below = Arrays.copyOf(below, 2 * top);
+                    above = Arrays.copyOf(above, 2 * top);
+                }
+                nodes[top] = node;
+                below[top] = y;
+                above[top] = a;
+            }
+            out[j] = y;
+        }
+    }
+
+    /**
+     * @return the smallest value in the set.
+     */
+    public long min(){
+        return min;
+    }
+
+    /**
+     * @return the counters of pred.
+     */
+    public SearchStats stats(){
+        return stats;
+    }
+
+    /**
+     * Finds and returns the value y in the tree such that y >= x.
+     * @param x the value to be queried.
+     * @return the value if there is one, if not NONE.
+     */
+    public long succ(long x){
+        if (x > max) return NONE;
+        if (x <= min) return min;
+        long y = NONE;
+        if (keys != null) {
+            int node = rootNode;
+            while (node != -1) {
+                long k = keys[node];
+                if (x > k) node = right[node];
+                else {
+                    y = k;
+                    if (x == k) break;
+                    node = left[node];
+                }
+            }
+        } else {
+            LongNode node = root;
+            while (node != null) {
+                if (x > node.value) node = node.right;
+                else {
+                    y = node.value;
+                    if (x == node.value) break;
+                    node = node.left;
+                }
+            }
+        }
+        return y;
+    }
+
+    /**
+     * Counts the values in the tree between lo and hi, from the weights of the
+     * subtrees left of the two search paths, so it takes O(depth) time.
+     * @param lo the smallest value of the range, inclusive.
+     * @param hi the largest value of the range, inclusive.
+     * @return the number of values, 0 if lo > hi.
+     */
+    public int countInRange(long lo, long hi){
+        if (lo > hi) return 0;
+        return rank(hi, true) - rank(lo, false);
+    }
+
+    /**
+     * @param x the value to be ranked.
+     * @param equal whether values equal to x are counted.
+     * @return the number of values smaller than x, or smaller than or equal to x.
+     */
+    private int rank(long x, boolean equal){
+        int count = 0;
+        if (keys != null) {
+            int node = rootNode;
+            while (node != -1) {
+                long k = keys[node];
+                if (x < k || (x == k && !equal)) node = left[node];
+                else {
+                    count += (left[node] == -1 ? 0 : weight[left[node]]) + 1;
+                    node = right[node];
+                }
+            }
+        } else {
+            LongNode node = root;
+            while (node != null) {
+                if (x < node.value || (x == node.value && !equal)) node = node.left;
+                else {
+                    count += size(node.left) + 1;
+                    node = node.right;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return a cursor over the ranges of the tree, it should not be shared by
+     * threads, and has to be seeked again after an insert or delete.
+     */
+    public LongRangeCursor cursor(){
+        return new Cursor();
+    }
+
+    /**
+     * An in-order walk from lo. The stack holds the nodes >= lo whose right subtree
+     * has not been walked yet, with the next value on top. The stack grows to the
+     * depth of the tree once and is then reused.
+     */
+    private class Cursor implements LongRangeCursor {
+        private LongNode[] nodes = new LongNode[64];
+        private int[] idx = new int[64];
+        private int top;
+        private long hi;
+
+        public void seek(long lo, long hi){
+            this.hi = hi;
+            top = 0;
+            if (keys != null) {
+                for (int node = rootNode; node != -1; ) {
+                    if (keys[node] >= lo) {
+                        push(null, node);
+                        node = left[node];
+                    } else {
+                        node = right[node];
+                    }
+                }
+            } else {
+                for (LongNode node = root; node != null; ) {
+                    if (node.value >= lo) {
+                        push(node, -1);
+                        node = node.left;
+                    } else {
+                        node = node.right;
+                    }
+                }
+            }
+        }
+
+        public boolean hasNext(){
+            if (top == 0) return false;
+            return (keys != null ? keys[idx[top - 1]] : nodes[top - 1].value) <= hi;
+        }
+
+        public long next(){
+            if (!hasNext()) throw new NoSuchElementException();
+            top--;
+            if (keys != null) {
+                int node = idx[top];
+                for (int m = right[node]; m != -1; m = left[m]) push(null, m);
+                return keys[node];
+            }
+            LongNode node = nodes[top];
+            nodes[top] = null;
+            for (LongNode m = node.right; m != null; m = m.left) push(m, -1);
+            return node.value;
+        }
+
+        private void push(LongNode node, int i){
+            if (top == idx.length) {
+                nodes = Arrays.copyOf(nodes, 2 * top);
+                idx = Arrays.copyOf(idx, 2 * top);
+            }
+            nodes[top] = node;
+            idx[top] = i;
+            top++;
+        }
+    }
+
+    /**
+     * Inserts x into the tree, if it is not there already. The weights on the
+     * path are updated, and the highest subtree on the path that has drifted
+     * too far from its alpha split is rebuilt. In compact mode the rebuilt
+     * subtree is laid out in new entries at the end of the arrays.
+     * Amortized O(log(n)).
+     * @param x the value to be inserted.
+     * @return true if x was inserted, false if it was already in the tree.
+     */
+    public boolean insert(long x){
+        if (keys != null) return insertCompact(x);
+        if (contains(x)) return false;
+
+        int len = 0;
+        LongNode node = root;
+        while (node != null) {
+            node.weight++;
+            len = addToPath(len, node);
+            node = x < node.value ? node.left : node.right;
+        }
+        LongNode leaf = new LongNode(x);
+        leaf.weight = 1;
+        LongNode parent = path[len - 1];
+        if (x < parent.value) parent.left = leaf;
+        else parent.right = leaf;
+
+        min = Math.min(min, x);
+        max = Math.max(max, x);
+        rebalance(len);
+        return true;
+    }
+
+    /**
+     * Deletes x from the tree, if it is there. A node with two children takes
+     * the value of its successor, which is deleted instead. The weights on the
+     * path are updated, and the highest subtree on the path that has drifted
+     * too far from its alpha split is rebuilt. In compact mode the entry of
+     * the deleted node goes on the free list.
+     * Amortized O(log(n)).
+     * @param x the value to be deleted.
+     * @return true if x was deleted, false if it was not in the tree.
+     */
+    public boolean delete(long x){
+        if (keys != null) return deleteCompact(x);
+        if (!contains(x)) return false;
+        if (root.weight == 1) throw new IllegalStateException("the tree has to contain at least one value");
+
+        int len = 0;
+        LongNode node = root;
+        while (node.value != x) {
+            node.weight--;
+            len = addToPath(len, node);
+            node = x < node.value ? node.left : node.right;
+        }
+        if (node.left != null && node.right != null) {
+            LongNode target = node;
+            node.weight--;
+            len = addToPath(len, node);
+            node = node.right;
+            while (node.left != null) {
+                node.weight--;
+                len = addToPath(len, node);
+                node = node.left;
+            }
+            target.value = node.value;
+        }
+
+        LongNode child = node.left != null ? node.left : node.right;
+        if (len == 0) root = child;
+        else if (path[len - 1].left == node) path[len - 1].left = child;
+        else path[len - 1].right = child;
+
+        if (x == min) min = leftmost(root).value;
+        if (x == max) max = rightmost(root).value;
+        rebalance(len);
+        return true;
+    }
+
+    /**
+     * @param x the value to look for.
+     * @return true if x is in the tree.
+     */
+    private boolean contains(long x){
+        LongNode node = root;
+        while (node != null && node.value != x) {
+            node = x < node.value ? node.left : node.right;
+        }
+        return node != null;
+    }
+
+    /**
+     * Adds a node to the path, growing it if needed.
+     * @param len the length of the path.
+     * @param node the node to be added.
+     * @return the new length of the path.
+     */
+    private int addToPath(int len, LongNode node){
+        if (len == path.length) path = Arrays.copyOf(path, 2 * len);
+        path[len] = node;
+        return len + 1;
+    }
+
+    /**
+     * Rebuilds the highest subtree on the path whose left subtree is further than
+     * SLACK times its weight from the size the alpha split gives it.
+     * @param len the length of the path.
+     */
+    private void rebalance(int len){
+        for (int i = 0; i < len; i++) {
+            LongNode node = path[i];
+            int ideal = (int)((node.weight - 1) * alpha);
+            if (Math.abs(size(node.left) - ideal) <= SLACK * node.weight + 1) continue;
+
+            long[] S = new long[node.weight];
+            flatten(node, S, 0);
+            LongNode rebuilt = buildTree(alpha, 0, S.length - 1, S);
+            if (i == 0) root = rebuilt;
+            else if (path[i - 1].left == node) path[i - 1].left = rebuilt;
+            else path[i - 1].right = rebuilt;
+            break;
+        }
+        Arrays.fill(path, 0, len, null);
+    }
+
+    /**
+     * Writes the values of the subtree to S in sorted order.
+     * @param node the root of the subtree.
+     * @param S the array to write to.
+     * @param i the index of the first value.
+     * @return the index after the last value.
+     */
+    private int flatten(LongNode node, long[] S, int i){
+        if (node == null) return i;
+        i = flatten(node.left, S, i);
+        S[i++] = node.value;
+        return flatten(node.right, S, i);
+    }
+
+    /**
+     * Insert over the arrays of compact mode, see insert.
+     */
+    private boolean insertCompact(long x){
+        if (containsCompact(x)) return false;
+
+        int len = 0;
+        int node = rootNode;
+        while (node != -1) {
+            weight[node]++;
+            len = addToNodePath(len, node);
+            node = x < keys[node] ? left[node] : right[node];
+        }
+        int leaf = allocate();
+        keys[leaf] = x;
+        left[leaf] = -1;
+        right[leaf] = -1;
+        weight[leaf] = 1;
+        int parent = nodePath[len - 1];
+        if (x < keys[parent]) left[parent] = leaf;
+        else right[parent] = leaf;
+
+        min = Math.min(min, x);
+        max = Math.max(max, x);
+        rebalanceCompact(len);
+        return true;
+    }
+
+    /**
+     * Delete over the arrays of compact mode, see delete.
+     */
+    private boolean deleteCompact(long x){
+        if (!containsCompact(x)) return false;
+        if (weight[rootNode] == 1) throw new IllegalStateException("the tree has to contain at least one value");
+
+        int len = 0;
+        int node = rootNode;
+        while (keys[node] != x) {
+            weight[node]--;
+            len = addToNodePath(len, node);
+            node = x < keys[node] ? left[node] : right[node];
+        }
+        if (left[node] != -1 && right[node] != -1) {
+            int target = node;
+            weight[node]--;
+            len = addToNodePath(len, node);
+            node = right[node];
+            while (left[node] != -1) {
+                weight[node]--;
+                len = addToNodePath(len, node);
+                node = left[node];
+            }
+            keys[target] = keys[node];
+        }
+
+        int child = left[node] != -1 ? left[node] : right[node];
+        if (len == 0) rootNode = child;
+        else if (left[nodePath[len - 1]] == node) left[nodePath[len - 1]] = child;
+        else right[nodePath[len - 1]] = child;
+        release(node);
+
+        if (x == min) min = keys[leftmost(rootNode)];
+        if (x == max) max = keys[rightmost(rootNode)];
+        rebalanceCompact(len);
+        return true;
+    }
+
+    /**
+     * @param x the value to look for.
+     * @return true if x is in the arrays of compact mode.
+     */
+    private boolean containsCompact(long x){
+        int node = rootNode;
+        while (node != -1 && keys[node] != x) {
+            node = x < keys[node] ? left[node] : right[node];
+        }
+        return node != -1;
+    }
+
+    /**
+     * Adds a node to the path of compact mode, growing it if needed.
+     * @param len the length of the path.
+     * @param node the node to be added.
+     * @return the new length of the path.
+     */
+    private int addToNodePath(int len, int node){
+        if (len == nodePath.length) nodePath = Arrays.copyOf(nodePath, 2 * len);
+        nodePath[len] = node;
+        return len + 1;
+    }
+
+    /**
+     * The rebalance of compact mode. The scapegoat's nodes go on the free list
+     * and its subtree is built by fillArrays into count new entries at the end
+     * of the arrays, so it is laid out as buildArrays would. When the scapegoat
+     * is the root, or more entries are free than in use, the whole tree is
+     * built again into new arrays.
+     * @param len the length of the path.
+     */
+    private void rebalanceCompact(int len){
+        for (int i = 0; i < len; i++) {
+            int node = nodePath[i];
+            int w = weight[node];
+            int ideal = (int)((w - 1) * alpha);
+            int l = left[node] == -1 ? 0 : weight[left[node]];
+            if (Math.abs(l - ideal) <= SLACK * w + 1) continue;
+
+            long[] S = new long[w];
+            flattenCompact(node, S, 0);
+            if (i == 0) {
+                buildArrays(alpha, S);
+                return;
+            }
+            int slot = nodePath[i - 1] << 1 | (left[nodePath[i - 1]] == node ? 0 : 1);
+            fillRange(S, slot, reserve(w));
+            break;
+        }
+        if (freed > used - freed) {
+            long[] S = new long[weight[rootNode]];
+            flattenCompact(rootNode, S, 0);
+            buildArrays(alpha, S);
+        }
+    }
+
+    /**
+     * Writes the values of a subtree in compact mode to S in sorted order,
+     * and puts its nodes on the free list.
+     * @param node the root of the subtree.
+     * @param S the array to write to.
+     * @param i the index of the first value.
+     * @return the index after the last value.
+     */
+    private int flattenCompact(int node, long[] S, int i){
+        if (node == -1) return i;
+        i = flattenCompact(left[node], S, i);
+        S[i++] = keys[node];
+        int r = right[node];
+        release(node);
+        return flattenCompact(r, S, i);
+    }
+
+    /**
+     * @return a free entry of the arrays, from the free list if it is not empty.
+     */
+    private int allocate(){
+        if (freed > 0) return free[--freed];
+        return reserve(1);
+    }
+
+    /**
+     * Takes count entries at the end of the arrays, growing them if needed.
+     * @param count the number of entries.
+     * @return the first of the entries.
+     */
+    private int reserve(int count){
+        long size = (long) used + count;
+        if (size > keys.length) {
+            if (size > MAX_NODES) throw new IllegalStateException("the tree is too large for compact mode");
+            int capacity = (int) Math.min(Math.max(size, 2L * keys.length), MAX_NODES);
+            keys = Arrays.copyOf(keys, capacity);
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            weight = Arrays.copyOf(weight, capacity);
+        }
+        int first = used;
+        used += count;
+        return first;
+    }
+
+    /**
+     * Puts an entry of the arrays on the free list.
+     * @param node the entry.
+     */
+    private void release(int node){
+        if (freed == free.length) free = Arrays.copyOf(free, 2 * freed);
+        free[freed++] = node;
+    }
+
+    private int leftmost(int node){
+        while (left[node] != -1) node = left[node];
+        return node;
+    }
+
+    private int rightmost(int node){
+        while (right[node] != -1) node = right[node];
+        return node;
+    }
+
+    private LongNode leftmost(LongNode node){
+        while (node.left != null) node = node.left;
+        return node;
+    }
+
+    private LongNode rightmost(LongNode node){
+        while (node.right != null) node = node.right;
+        return node;
+    }
+
+    /**
+     * Iterative search down the arrays of compact mode.
+     * @param x integer value, min <= x
+     * @return integer value y such that y <= x 
+     */
+    private long search(long x){
+        int node = rootNode;
+        long y = NONE;
+        while (node != -1) {
+            long k = keys[node];
+            if (x < k) node = left[node];
+            else if (x > k) {
+                y = k;
+                node = right[node];
+            }
+            else return k;
+        }
+        return y;
+    }
+
+    /**
+     * @return the name of the class, followed by Compact in compact mode.
+     */
+    public String name(){
+        return keys != null ? getClass().getName() + "Compact" : getClass().getName();
+    }
+
+    /**
+     * Recursive in-order trasversal of the given sbst
+     * @param tree tree to traverse
+     * @param x integer value
+     * @return integer value y such that y <= x 
+     */
+    private LongNode inOrderTraverse(LongNode node, long x){
+        if(node == null){
+            return null;
+        }
+        if (x < node.value){
+            return inOrderTraverse(node.left, x);
+        } else if (x > node.value){
+            LongNode t = inOrderTraverse(node.right, x);
+            if(t == null){
+                return node;
+            }
+            return t;
+
+        } else{
+            return node;
+        }
+    }
+    
+
+    /**
+     * Finds the weight of a given node, if it is a
+     * leaf returns 0.
+     * @param n the node to be checked
+     * @return the weight
+     */
+    private int size(LongNode n){
+        if(n == null) return 0;
+        else return n.weight; 
+    }
+    
+    public static void main(String[] args) {
+            double alpha = 0.4;
+            int threads = Runtime.getRuntime().availableProcessors();
+            InputReader.readInt();
+            LongSearchTree st = new LongSearchTree(InputReader.readLongElems(),alpha);
+            InputReader.runOp(st, threads);
+    }
+}
@@ -1,3 +1,4 @@
+// Generated by template/specialize.sh from template/KeyNode.java.tmpl, edit the template instead.
 package part1;
 
 /**
@@ -5,7 +6,8 @@ package part1;
  */
 class Node implements Comparable<Node>{
 
-    int value, weight;
+    int value;
+    int weight;
     Node left, right;
 
     /**
@@ -34,4 +36,4 @@ class Node implements Comparable<Node>{
             return 0;
         }
     }
-}
\ No newline at end of file
+}
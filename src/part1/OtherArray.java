@@ -1,37 +1,81 @@
+// Generated by template/specialize.sh from template/KeyOtherArray.java.tmpl, edit the template instead.
 package part1;
 
-import java.util.PriorityQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * An implementation of a pqDFS Skewed Binary Search Tree. Based on the below paper
  * Brodal, G.S. and Moruz, G., 2006, September. Skewed binary search trees. 
  * In European Symposium on Algorithms (pp. 708-719). Springer, Berlin, Heidelberg. 
  */
-public class OtherArray implements SkewedBST{
+public class OtherArray implements RangeSkewedBST{
 
     int[] set;
-    Node[] nodes;
     int idx;
     int min;
     int max;
+    double alpha;
+    int p;
+    private int batchSize = 1;
+
+    // the number of positions of set in a 64 byte line
+    private static final int LINE = 64 / Integer.BYTES;
+
+    private final SearchStats stats = SearchStats.ENABLED ? new SearchStats() : null;
+    // bit i is set if node i is the first node of its p-block, only kept when counting
+    private long[] blockRoots;
+
+    // sets larger than this are laid out in parallel, as are their subtrees larger than this
+    private static final int PARALLEL_CUTOFF = 1 << 16;
 
     /**
      * Initializes an OtherArray, all building occurs in the constructor.
-     * This implementation uses the SearchTree to build.
+     * The nodes of the skewed tree are laid out directly from the sorted set.
      * @param elems the elements to be added.
      * @param alpha decides how skewed the binary search tree is going to be.
      * @param p the size of each block.
      */
     public OtherArray(int[] elems, double alpha, int p){
-        SearchTree tree = new SearchTree(elems, alpha);
+        if (p < 1) throw new IllegalArgumentException("p has to be larger than 0");
+        Arrays.parallelSort(elems);
         int n = elems.length;
         set = new int[3 * n];
-        nodes = new Node[3 * n];
         idx = 1;
-        pqDFS(tree.root, p);
-        setupOtherArray();
+        pqDFS(elems, alpha, p);
+        min = elems[0];
+        max = elems[n - 1];
+        this.alpha = alpha;
+        this.p = p;
+    }
+
+    /**
+     * Initializes an OtherArray with the nodes in van Emde Boas order instead of
+     * pqDFS order. The layout is cache-oblivious, so there is no p to tune.
+     * @param elems the elements to be added.
+     * @param alpha decides how skewed the binary search tree is going to be.
+     * @return the OtherArray, with p set to 0.
+     */
+    public static OtherArray vanEmdeBoas(int[] elems, double alpha){
+        return new OtherArray(elems, alpha);
+    }
+
+    /**
+     * Builds the van Emde Boas layout, see vanEmdeBoas.
+     * @param elems the elements to be added.
+     * @param alpha decides how skewed the binary search tree is going to be.
+     */
+    private OtherArray(int[] elems, double alpha){
+        SearchTree tree = new SearchTree(elems, alpha, true);
+        set = new VanEmdeBoas(tree).layout();
         min = tree.min;
         max = tree.max;
+        this.alpha = alpha;
+        this.p = 0;
     }
 
     /**
@@ -39,102 +83,683 @@ public class OtherArray implements SkewedBST{
      * Worst case is O(log(n)), best case is O(1) if x is outside 
      * the range of the set. (not considering memory)
      * @param x the value to be queried.
-     * @return the value if it is in the set, if not "None".
+     * @return the value if there is one, if not NONE.
      */
-    public StringBuilder Pred(int x){
+    public int pred(int x){
+        if (SearchStats.ENABLED) return tracedPred(x);
         int pos = 1;
         int k = set[pos];
-        int y = Integer.MIN_VALUE;
+        int y = NONE;
 
-        if (x < min) return new StringBuilder("None ");
-        if (x > max) return new StringBuilder(max + " ");
+        if (x < min) return NONE;
+        if (x > max) return max;
 
         while (true) {
             if (x < k) pos = set[pos-1];
             if (x > k) pos = set[pos+1];
             
-            if (k == x) return new StringBuilder(k + " ");
+            if (k == x) return k;
             if (k < x) y = k;
 
-            if (pos == -1 && y > x) return new StringBuilder("None ");
-            if (pos == -1 && y == Integer.MIN_VALUE) return new StringBuilder("None ");
-            if (pos == -1 && y < x) return new StringBuilder(y + " ");
+            if (pos == -1) return y;
 
             k = set[pos];
         }
     }
 
     /**
-     * Given a binary search tree - adds all the nodes to a priority queue
-     * nodes are stored according to their weight (size of their subtrees)
-     * @param tree the tree to be added to the priority queue
-     * @param pq the priority queue to be added to
+     * pred that also records the query in stats. A block is a p-block, or for the
+     * van Emde Boas layout a 64 byte line of set, LINE positions.
+     * @param x the value to be queried.
+     * @return the value if there is one, if not NONE.
+     */
+    private int tracedPred(int x){
+        int comparisons = 2, nodes = 0, blocks = 0, line = -1;
+        int y = NONE;
+        if (x < min) {
+            comparisons = 1;
+        } else if (x > max) {
+            y = max;
+        } else {
+            int pos = 1;
+            while (pos != -1) {
+                int k = set[pos];
+                nodes++;
+                if (blockRoots != null) {
+                    int node = pos / 3;
+                    if ((blockRoots[node >>> 6] & (1L << node)) != 0) blocks++;
+                } else if (pos / LINE != line) {
+                    line = pos / LINE;
+                    blocks++;
+                }
+                comparisons++;
+                if (x < k) {
+                    pos = set[pos-1];
+                    continue;
+                }
+                comparisons++;
+                if (x == k) {
+                    y = k;
+                    break;
+                }
+                y = k;
+                pos = set[pos+1];
+            }
+        }
+        stats.record(comparisons, nodes, blocks);
+        return y;
+    }
+
+    /**
+     * Answers pred for the queries from index from to index to. If the batch size
+     * is larger than 1 the queries are answered in batches of that size by predBatch.
+     * @param queries the values to be queried.
+     * @param out where the answer to queries[i] is written to out[i].
+     * @param from the first query to answer, inclusive.
+     * @param to the last query to answer, exclusive.
+     */
+    public void pred(int[] queries, int[] out, int from, int to){
+        if (batchSize == 1) {
+            for (int i = from; i < to; i++) {
+                out[i] = pred(queries[i]);
+            }
+            return;
+        }
+        int[] pos = new int[batchSize];
+        int[] y = new int[batchSize];
+        for (int i = from; i < to; i += batchSize) {
+            predBatch(queries, out, i, Math.min(i + batchSize, to), pos, y);
+        }
+    }
+
+    /**
+     * Sets how many queries the bulk pred moves through the tree in lockstep.
+     * @param batchSize the number of queries in a batch, 1 answers them one at a time.
+     */
+    public void setBatchSize(int batchSize){
+        if (batchSize < 1) throw new IllegalArgumentException("batchSize has to be larger than 0");
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * The search performed on a batch of queries at once. Each round moves every
+     * query that is not done one node down the tree, so the loads of the different
+     * queries are independent and their cache misses can overlap. A query keeps
+     * going right on equality, like the batch of SortedArray, so every query takes
+     * the same kind of step each round, and it is done when its position is -1.
+     * @param queries the values to be queried.
+     * @param out where the answer to queries[i] is written to out[i].
+     * @param from the first query of the batch, inclusive.
+     * @param to the last query of the batch, exclusive.
+     * @param pos the position in set of each query in the batch.
+     * @param y the largest key smaller than or equal to each query seen so far.
+     */
+    private void predBatch(int[] queries, int[] out, int from, int to, int[] pos, int[] y){
+        int[] set = this.set;
+        int g = to - from;
+        for (int j = 0; j < g; j++) {
+            int x = queries[from + j];
+            y[j] = x < min ? NONE : max;
+            pos[j] = x < min || x >= max ? -1 : 1;
+        }
+
+        boolean active = true;
+        while (active) {
+            active = false;
+            for (int j = 0; j < g; j++) {
+                int p = pos[j];
+                if (p == -1) continue;
+                int x = queries[from + j];
+                int k = set[p];
+                if (x < k) pos[j] = set[p-1];
+                else {
+                    y[j] = k;
+                    pos[j] = set[p+1];
+                }
+                active = true;
+            }
+        }
+
+        System.arraycopy(y, 0, out, from, g);
+    }
+
+    /**
+     * Answers pred for sorted queries with a finger search. The path to the
+     * previous answer is kept on a stack together with the largest key smaller
+     * than each node's subtree, and the smallest key larger than it. A query
+     * only pops the nodes whose subtree it has passed and searches down from
+     * there, so each node is visited at most once and q queries take O(n + q).
+     * @param sorted the values to be queried, sorted.
+     * @param out where the answer to sorted[i] is written to out[i].
+     * @param from the first query to answer, inclusive.
+     * @param to the last query to answer, exclusive.
+     */
+    public void predSorted(int[] sorted, int[] out, int from, int to){
+        int[] pos = new int[64];
+        int[] below = new int[64];
+        int[] above = new int[64];
+        int top = 0;
+        pos[0] = 1;
+        below[0] = NONE;
+        above[0] = Integer.MAX_VALUE;
+        for (int j = from; j < to; j++) {
+            int x = sorted[j];
+            if (x < min) { out[j] = NONE; continue; }
+            if (x > max) { out[j] = max; continue; }
+
+            while (top > 0 && x >= above[top]) top--;
+            int p = pos[top];
+            int y = below[top];
+            int a = above[top];
+            while (true) {
+                int k = set[p];
+                if (k == x) { y = k; break; }
+                int next;
+                if (x < k) { next = set[p-1]; a = k; }
+                else { next = set[p+1]; y = k; }
+                if (next == -1) break;
+                p = next;
+                if (++top == pos.length) {
+                    pos = Arrays.copyOf(pos, 2 * top);
+                    below = Arrays.copyOf(below, 2 * top);
+                    above = Arrays.copyOf(above, 2 * top);
+                }
+                pos[top] = p;
+                below[top] = y;
+                above[top] = a;
+            }
+            out[j] = y;
+        }
+    }
+
+    /**
+     * @return the smallest value in the set.
+     */
+    public int min(){
+        return min;
+    }
+
+    /**
+     * @return the counters of pred, batches are not counted.
+     */
+    public SearchStats stats(){
+        return stats;
+    }
+
+    /**
+     * Finds and returns the value y in the tree such that y >= x.
+     * @param x the value to be queried.
+     * @return the value if there is one, if not NONE.
+     */
+    public int succ(int x){
+        if (x > max) return NONE;
+        if (x <= min) return min;
+        int pos = 1;
+        int y = NONE;
+        while (pos != -1) {
+            int k = set[pos];
+            if (x > k) pos = set[pos+1];
+            else {
+                y = k;
+                if (x == k) break;
+                pos = set[pos-1];
+            }
+        }
+        return y;
+    }
+
+    /**
+     * Counts the values in the tree between lo and hi, as the difference of two ranks.
+     * Takes O(depth) time and allocates nothing.
+     * @param lo the smallest value of the range, inclusive.
+     * @param hi the largest value of the range, inclusive.
+     * @return the number of values, 0 if lo > hi.
+     */
+    public int countInRange(int lo, int hi){
+        if (lo > hi) return 0;
+        return rank(hi, true) - rank(lo, false);
+    }
+
+    /**
+     * The nodes do not store the size of their subtree, but the subtree of a node is
+     * the range [lo, hi] of the sorted set that the alpha splits above it leave, in
+     * both the pqDFS and the van Emde Boas layout. So the range is carried down the
+     * search path of x, and the rank is where the path ends.
+     * @param x the value to be ranked.
+     * @param equal whether values equal to x are counted.
+     * @return the number of values smaller than x, or smaller than or equal to x.
+     */
+    private int rank(int x, boolean equal){
+        int lo = 0, hi = set.length / 3 - 1;
+        int pos = 1;
+        while (pos != -1) {
+            int mid = (int)(lo + (hi - lo) * alpha);
+            int k = set[pos];
+            if (x == k) return equal ? mid + 1 : mid;
+            if (x < k) {
+                hi = mid - 1;
+                pos = set[pos-1];
+            } else {
+                lo = mid + 1;
+                pos = set[pos+1];
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * @return a cursor over the ranges of the tree, it should not be shared by threads.
      */
-    private void addToPQ(Node tree, PriorityQueue<Node> pq){
-        if (tree != null) {
-            if (tree.right != null) pq.add(tree.right);
-            if (tree.left != null) pq.add(tree.left);
+    public RangeCursor cursor(){
+        return new Cursor();
+    }
+
+    /**
+     * An in-order walk from lo. The stack holds the positions of the keys >= lo
+     * whose right subtree has not been walked yet, with the next key on top. The
+     * stack grows to the depth of the tree once and is then reused.
+     */
+    private class Cursor implements RangeCursor {
+        private int[] stack = new int[64];
+        private int top;
+        private int hi;
+
+        public void seek(int lo, int hi){
+            this.hi = hi;
+            top = 0;
+            for (int pos = 1; pos != -1; ) {
+                if (set[pos] >= lo) {
+                    push(pos);
+                    pos = set[pos-1];
+                } else {
+                    pos = set[pos+1];
+                }
+            }
+        }
+
+        public boolean hasNext(){
+            return top > 0 && set[stack[top - 1]] <= hi;
+        }
+
+        public int next(){
+            if (!hasNext()) throw new NoSuchElementException();
+            return skip();
+        }
+
+        /**
+         * Moves past the key on top of the stack.
+         * @return the key.
+         */
+        int skip(){
+            int pos = stack[--top];
+            for (int m = set[pos+1]; m != -1; m = set[m-1]) push(m);
+            return set[pos];
+        }
+
+        private void push(int pos){
+            if (top == stack.length) stack = Arrays.copyOf(stack, 2 * top);
+            stack[top++] = pos;
         }
     }
 
+    /**
+     * @return the name of the class, followed by VEB for the van Emde Boas layout.
+     */
+    public String name(){
+        return p == 0 ? getClass().getName() + "VEB" : getClass().getName();
+    }
+
     /**
      * Adds the keys of all the 'nodes' to set each node being 3 positions 
      * in the array like so [left, key, right], where both left and right 
      * are the index of the children to the 'node'. It stores the p heaviest
      * nodes and then recursively adds the children of those in p blocks.
-     * @param tree the tree to be added be built into the array
+     * A node of the skewed tree is the range [lo, hi] of the sorted set that
+     * its subtree spans, so its key and weight follow from the range and no
+     * Node objects are needed. Each node also carries the index in set that
+     * should point to it, which links the children as they are laid out.
+     * The blocks that are recursed into are kept on an explicit stack of
+     * heaps, each holding at most p + 1 nodes.
+     *
+     * The subtree of a node is laid out in one piece of 3 * weight positions,
+     * so once a block is placed, where each subtree hanging below it goes only
+     * depends on the order they are recursed into. Large sets are therefore
+     * laid out by a LayoutTask, which lays out the subtrees in parallel.
+     * @param S the sorted set.
+     * @param alpha decides how skewed the binary search tree is going to be.
      * @param p the size of the block
      */
-    private void pqDFS(Node tree, int p){
-        // PQ of Nodes
-        PriorityQueue<Node> pq = new PriorityQueue<>((e1, e2) -> e2.weight - e1.weight);  
-        pq.add(tree);
-        for (int i = 0; i < p; i++ ) {
-            if (pq.size() > 0) {
-                tree = pq.poll();
-                set[idx] = tree.value;
-                nodes[idx] = tree;
-                addToPQ(tree, pq);
-                idx += 3;
-            } else
+    private void pqDFS(int[] S, double alpha, int p){
+        // blockRoots is shared by all the nodes, so it is only filled by a sequential layout
+        if (SearchStats.ENABLED) blockRoots = new long[(S.length >>> 6) + 1];
+        if (S.length <= PARALLEL_CUTOFF || SearchStats.ENABLED) {
+            new Layout(S, alpha, p, idx, S.length).run(0, S.length - 1, -1);
+        } else {
+            ForkJoinPool.commonPool().invoke(new LayoutTask(S, alpha, p, 0, S.length - 1, -1, idx));
+        }
+        idx += 3 * S.length;
+    }
+
+    /**
+     * Lays out a subtree of the pqDFS layout when it is larger than PARALLEL_CUTOFF,
+     * by laying out its first block and then the subtrees hanging below the block,
+     * each at the position a sequential layout would give it. The subtrees larger
+     * than PARALLEL_CUTOFF are forked, the others are laid out by the block's own
+     * Layout while the forked ones run.
+     */
+    private class LayoutTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] S;
+        private final double alpha;
+        private final int p, lo, hi, slot, start;
+
+        /**
+         * @param S the sorted set.
+         * @param alpha decides how skewed the binary search tree is going to be.
+         * @param p the size of the block
+         * @param lo the lowest index of the subtree's range.
+         * @param hi the highest index of the subtree's range.
+         * @param slot the index in set that should point to the subtree, -1 if none.
+         * @param start the index in set of the key of the subtree's first node.
+         */
+        LayoutTask(int[] S, double alpha, int p, int lo, int hi, int slot, int start){
+            this.S = S;
+            this.alpha = alpha;
+            this.p = p;
+            this.lo = lo;
+            this.hi = hi;
+            this.slot = slot;
+            this.start = start;
+        }
+
+        @Override
+        protected void compute(){
+            Layout layout = new Layout(S, alpha, p, start, hi - lo + 1);
+            if (hi - lo + 1 <= PARALLEL_CUTOFF) {
+                layout.run(lo, hi, slot);
                 return;
+            }
+            layout.offer(0, lo, hi, slot);
+            layout.fillBlock(0);
+
+            // the subtrees are laid out one after the other in the order they leave the heap
+            int m = layout.heapSize[0];
+            int[] los = new int[m], his = new int[m], slots = new int[m], starts = new int[m];
+            int next = layout.idx;
+            for (int i = 0; i < m; i++) {
+                los[i] = layout.heapLo[0];
+                his[i] = layout.heapHi[0];
+                slots[i] = layout.heapSlot[0];
+                layout.poll(0);
+                starts[i] = next;
+                next += 3 * (his[i] - los[i] + 1);
+            }
+
+            List<LayoutTask> forked = new ArrayList<>();
+            for (int i = 0; i < m; i++) {
+                if (his[i] - los[i] + 1 <= PARALLEL_CUTOFF) continue;
+                LayoutTask task = new LayoutTask(S, alpha, p, los[i], his[i], slots[i], starts[i]);
+                task.fork();
+                forked.add(task);
+            }
+            for (int i = 0; i < m; i++) {
+                if (his[i] - los[i] + 1 > PARALLEL_CUTOFF) continue;
+                layout.idx = starts[i];
+                layout.run(los[i], his[i], slots[i]);
+            }
+            for (LayoutTask task : forked) task.join();
         }
-        while (pq.size() > 0)
-            pqDFS(pq.poll(), p);
     }
 
     /**
-     * Adds the left and right children indices to each node.
+     * The stack of heaps of a pqDFS layout. Each Layout lays out one subtree
+     * starting from a given index, so several can lay out disjoint subtrees of
+     * set at the same time.
      */
-    private void setupOtherArray(){
-        for(int i = 1; i < set.length; i += 3){
-            Node left = nodes[i].left;
-            Node right = nodes[i].right;
-            if (left != null) set[i-1] = findIndex(left.value);
-            else set[i-1] = -1;
-            if (right != null) set[i+1] = findIndex(right.value);
-            else set[i+1] = -1;
+    private class Layout {
+        private final int[] S;
+        private final double alpha;
+        private final int p, cap;
+        // the heaps of the blocks being laid out
+        private int[] heapLo, heapHi, heapSlot, heapSize;
+        // the index in set of the key of the next node
+        private int idx;
+
+        /**
+         * @param S the sorted set.
+         * @param alpha decides how skewed the binary search tree is going to be.
+         * @param p the size of the block
+         * @param idx the index in set of the key of the first node.
+         * @param size the number of keys of the largest subtree it lays out.
+         */
+        Layout(int[] S, double alpha, int p, int idx, int size){
+            this.S = S;
+            this.alpha = alpha;
+            this.p = p;
+            this.idx = idx;
+            cap = Math.min(p, size) + 1;
+            heapSize = new int[16];
+            heapLo = new int[16 * cap];
+            heapHi = new int[16 * cap];
+            heapSlot = new int[16 * cap];
+        }
+
+        /**
+         * Lays out the subtree of the range [lo, hi] in pqDFS order.
+         * @param lo the lowest index of the subtree's range.
+         * @param hi the highest index of the subtree's range.
+         * @param slot the index in set that should point to the subtree, -1 if none.
+         */
+        void run(int lo, int hi, int slot){
+            int top = 0;
+            offer(top, lo, hi, slot);
+            fillBlock(top);
+            while (top >= 0) {
+                if (heapSize[top] == 0) {
+                    top--;
+                    continue;
+                }
+                int base = top * cap;
+                int l = heapLo[base], h = heapHi[base], s = heapSlot[base];
+                poll(top);
+                top++;
+                if (top == heapSize.length) growHeaps();
+                heapSize[top] = 0;
+                offer(top, l, h, s);
+                fillBlock(top);
+            }
+        }
+
+        /**
+         * Lays out the p heaviest nodes of the given heap, adding the children of
+         * each node to the heap as it is placed.
+         * @param h the heap of the block.
+         */
+        void fillBlock(int h){
+            int[] set = OtherArray.this.set;
+            int base = h * cap;
+            for (int i = 0; i < p; i++) {
+                if (heapSize[h] == 0) return;
+                int lo = heapLo[base], hi = heapHi[base], slot = heapSlot[base];
+                poll(h);
+
+                int mid = (int)(lo + (hi - lo) * alpha);
+                if (SearchStats.ENABLED && i == 0) blockRoots[idx / 3 >>> 6] |= 1L << (idx / 3);
+                set[idx] = S[mid];
+                set[idx-1] = -1;
+                set[idx+1] = -1;
+                if (slot != -1) set[slot] = idx;
+                if (mid + 1 <= hi) offer(h, mid + 1, hi, idx + 1);
+                if (lo <= mid - 1) offer(h, lo, mid - 1, idx - 1);
+                idx += 3;
+            }
+        }
+
+        /**
+         * Adds a node to the given heap. Mirrors the sift up of java.util.PriorityQueue,
+         * so nodes of equal weight are laid out in the same order as with a PriorityQueue.
+         * @param h the heap to add to.
+         * @param lo the lowest index of the node's range.
+         * @param hi the highest index of the node's range.
+         * @param slot the index in set that should point to the node, -1 if none.
+         */
+        void offer(int h, int lo, int hi, int slot){
+            int base = h * cap;
+            int w = hi - lo;
+            int k = heapSize[h]++;
+            while (k > 0) {
+                int parent = (k - 1) >>> 1;
+                if (heapHi[base + parent] - heapLo[base + parent] >= w) break;
+                move(base + parent, base + k);
+                k = parent;
+            }
+            heapLo[base + k] = lo;
+            heapHi[base + k] = hi;
+            heapSlot[base + k] = slot;
+        }
+
+        /**
+         * Removes the heaviest node from the given heap. Mirrors the sift down of
+         * java.util.PriorityQueue.
+         * @param h the heap to remove from.
+         */
+        void poll(int h){
+            int base = h * cap;
+            int n = --heapSize[h];
+            if (n == 0) return;
+            int lo = heapLo[base + n], hi = heapHi[base + n], slot = heapSlot[base + n];
+            int w = hi - lo;
+            int k = 0;
+            int half = n >>> 1;
+            while (k < half) {
+                int child = 2 * k + 1;
+                int right = child + 1;
+                if (right < n && heapHi[base + right] - heapLo[base + right] 
+                                > heapHi[base + child] - heapLo[base + child]) child = right;
+                if (heapHi[base + child] - heapLo[base + child] <= w) break;
+                move(base + child, base + k);
+                k = child;
+            }
+            heapLo[base + k] = lo;
+            heapHi[base + k] = hi;
+            heapSlot[base + k] = slot;
+        }
+
+        /**
+         * Copies a heap entry from one position to another.
+         * @param from the position to copy from.
+         * @param to the position to copy to.
+         */
+        private void move(int from, int to){
+            heapLo[to] = heapLo[from];
+            heapHi[to] = heapHi[from];
+            heapSlot[to] = heapSlot[from];
+        }
+
+        /**
+         * Doubles the number of heaps that can be stacked.
+         */
+        private void growHeaps(){
+            int frames = heapSize.length * 2;
+            heapSize = Arrays.copyOf(heapSize, frames);
+            heapLo = Arrays.copyOf(heapLo, frames * cap);
+            heapHi = Arrays.copyOf(heapHi, frames * cap);
+            heapSlot = Arrays.copyOf(heapSlot, frames * cap);
         }
-        nodes = null;
     }
 
     /**
-     * Finds the index of a given value in the set array.
-     * @param value the value that one wants to find the index of.
-     * @return the index value if it is there and -1 if it isnt.
+     * Lays out a compact SearchTree in van Emde Boas order. A subtree of height h
+     * is cut at height h / 2, the top part is laid out first and then each of the
+     * subtrees hanging below it, all recursively. The skewed tree is not complete,
+     * so each bottom subtree is cut at its own height, and the children are stored
+     * as indices like in the pqDFS layout.
      */
-    private int findIndex(int value) {
-        for (int i = 1; i < set.length; i += 3) {
-            if (value == set[i]) return i;
+    private static class VanEmdeBoas {
+        private final int[] keys;
+        private final int[] left, right;
+        private final int[] height, order;
+        private int next;
+
+        // nodes and depths waiting to be visited, shared by the recursive calls
+        private int[] stack = new int[64];
+        private int sp;
+
+        VanEmdeBoas(SearchTree tree){
+            keys = tree.keys;
+            left = tree.left;
+            right = tree.right;
+            int n = keys.length;
+            height = new int[n];
+            order = new int[n];
+            // the nodes are in preorder, so the children come after their parent
+            for (int v = n - 1; v >= 0; v--) {
+                int hl = left[v] == -1 ? 0 : height[left[v]];
+                int hr = right[v] == -1 ? 0 : height[right[v]];
+                height[v] = 1 + Math.max(hl, hr);
+            }
+        }
+
+        /**
+         * @return the nodes as [left, key, right] in van Emde Boas order.
+         */
+        int[] layout(){
+            veb(0, height[0]);
+            int[] set = new int[3 * keys.length];
+            for (int v = 0; v < keys.length; v++) {
+                int i = 3 * order[v] + 1;
+                set[i] = keys[v];
+                set[i-1] = left[v] == -1 ? -1 : 3 * order[left[v]] + 1;
+                set[i+1] = right[v] == -1 ? -1 : 3 * order[right[v]] + 1;
+            }
+            return set;
+        }
+
+        /**
+         * Lays out the nodes of the subtree of v that are less than h levels below v.
+         * @param v the root of the subtree.
+         * @param h the number of levels to lay out.
+         */
+        private void veb(int v, int h){
+            if (h == 1) {
+                order[v] = next++;
+                return;
+            }
+            int top = h / 2;
+            veb(v, top);
+
+            // the nodes top levels below v, from left to right
+            int base = sp;
+            push(v, 0);
+            while (sp > base) {
+                sp -= 2;
+                int u = stack[sp], d = stack[sp + 1];
+                if (d == top) {
+                    veb(u, Math.min(h - top, height[u]));
+                    continue;
+                }
+                if (right[u] != -1) push(right[u], d + 1);
+                if (left[u] != -1) push(left[u], d + 1);
+            }
+        }
+
+        private void push(int v, int d){
+            if (sp + 2 > stack.length) stack = Arrays.copyOf(stack, 2 * stack.length);
+            stack[sp] = v;
+            stack[sp + 1] = d;
+            sp += 2;
         }
-        return -1;
     }
 
     public static void main(String[] args) {
         double alpha = 0.4;
         int p = 21;
+        int batchSize = 16;
+        int threads = Runtime.getRuntime().availableProcessors();
         InputReader.readInt();
         OtherArray st = new OtherArray(InputReader.readElems(),alpha, p);
-        InputReader.runOp(st);
+        st.setBatchSize(batchSize);
+        InputReader.runOp(st, threads);
     }
 }
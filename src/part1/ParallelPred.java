@@ -0,0 +1,87 @@
+// Generated by template/specialize.sh from template/KeyParallelPred.java.tmpl, edit the template instead.
+package part1;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Answers the queries of a Skewed Binary Search Tree (sbst) on several threads.
+ * The sbsts are read-only once built, so the queries are split into slices that
+ * are answered independently, each writing only to its own slice of the answers.
+ */
+public class ParallelPred {
+
+    // the number of queries a single task answers
+    private static final int SLICE = 1 << 14;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a ForkJoinPool with the given number of worker threads.
+     * @param threads the number of worker threads.
+     */
+    public ParallelPred(int threads){
+        if (threads < 1) throw new IllegalArgumentException("threads has to be larger than 0");
+        pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Answers pred for each of the queries, the answers are in the same order as the queries.
+     * @param st the sbst to be queried.
+     * @param queries the values to be queried.
+     * @param out where the answer to queries[i] is written to out[i].
+     */
+    public void pred(SkewedBST st, int[] queries, int[] out){
+        pred(st, queries, out, 0, queries.length);
+    }
+
+    /**
+     * Answers pred for the queries from index from to index to.
+     * @param st the sbst to be queried.
+     * @param queries the values to be queried.
+     * @param out where the answer to queries[i] is written to out[i].
+     * @param from the first query to answer, inclusive.
+     * @param to the last query to answer, exclusive.
+     */
+    public void pred(SkewedBST st, int[] queries, int[] out, int from, int to){
+        pool.invoke(new Slice(st, queries, out, from, to));
+    }
+
+    /**
+     * Stops the worker threads once the submitted queries are answered.
+     */
+    public void shutdown(){
+        pool.shutdown();
+    }
+
+    /**
+     * Answers the queries from index from to index to, splitting in halves until
+     * a slice has at most SLICE queries.
+     */
+    private static class Slice extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final SkewedBST st;
+        private final int[] queries, out;
+        private final int from, to;
+
+        Slice(SkewedBST st, int[] queries, int[] out, int from, int to){
+            this.st = st;
+            this.queries = queries;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute(){
+            if (to - from <= SLICE) {
+                st.pred(queries, out, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Slice(st, queries, out, from, mid),
+                      new Slice(st, queries, out, mid, to));
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package part1;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A small direct-mapped cache of answers in front of a Skewed Binary Search Tree
+ * (sbst). A query is hashed to one entry, and if the entry holds the query its
+ * answer is returned without searching the sbst, otherwise the sbst answers and
+ * the entry is overwritten. Under skewed workloads the popular queries stay in
+ * the cache and are answered with a single load.
+ *
+ * An entry is the query and its answer packed in one long, so a cache line holds
+ * 8 entries. Every entry starts out holding min and its answer, so there is no
+ * empty entry to check for. The entries are read and written with opaque access,
+ * which is atomic for longs, so several threads can share the cache and never see
+ * the query of one entry with the answer of another. Nothing is allocated after
+ * construction.
+ */
+public class PredCache implements SkewedBST {
+
+    private static final VarHandle ENTRY = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int ENTRIES_PER_LINE = 8;
+
+    private final SkewedBST st;
+    private final long[] entries;
+    private final int shift;
+    // only counted on a miss, where the search of the sbst costs far more
+    private long misses;
+
+    /**
+     * Puts a cache in front of the given sbst.
+     * @param st the sbst answering the misses.
+     * @param lines the size of the cache in 64 byte cache lines, rounded up to a power of 2.
+     */
+    public PredCache(SkewedBST st, int lines){
+        if (lines < 1 || lines > 1 << 26) throw new IllegalArgumentException("lines has to be between 1 and 2^26");
+        this.st = st;
+        int size = Integer.highestOneBit(lines * ENTRIES_PER_LINE - 1) << 1;
+        entries = new long[size];
+        shift = 32 - Integer.numberOfTrailingZeros(size);
+        int min = st.min();
+        long entry = pack(min, st.pred(min));
+        for (int i = 0; i < size; i++) {
+            entries[i] = entry;
+        }
+    }
+
+    private static long pack(int x, int y){
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Fibonacci hashing, the top bits of the product depend on all the bits of x.
+     */
+    private int slot(int x){
+        return (x * 0x9E3779B9) >>> shift;
+    }
+
+    /**
+     * Answers from the cache if the entry of x holds x, and from the sbst if not.
+     * @param x the value to be queried.
+     * @return the value if there is one, if not NONE.
+     */
+    public int pred(int x){
+        int i = slot(x);
+        long e = (long) ENTRY.getOpaque(entries, i);
+        if ((int)(e >>> 32) == x) return (int) e;
+        misses++;
+        int y = st.pred(x);
+        ENTRY.setOpaque(entries, i, pack(x, y));
+        return y;
+    }
+
+    /**
+     * Answers pred for the queries from index from to index to.
+     * @param queries the values to be queried.
+     * @param out where the answer to queries[i] is written to out[i].
+     * @param from the first query to answer, inclusive.
+     * @param to the last query to answer, exclusive.
+     */
+    public void pred(int[] queries, int[] out, int from, int to){
+        for (int i = from; i < to; i++) {
+            out[i] = pred(queries[i]);
+        }
+    }
+
+    /**
+     * @return the number of queries the sbst had to answer since the last reset. When
+     * threads share the cache some misses may not be counted.
+     */
+    public long misses(){
+        return misses;
+    }
+
+    /**
+     * Sets the number of misses back to 0.
+     */
+    public void resetMisses(){
+        misses = 0;
+    }
+
+    /**
+     * @return the smallest value in the set.
+     */
+    public int min(){
+        return st.min();
+    }
+
+    public String name(){
+        return st.name() + "Cached";
+    }
+
+    /**
+     * A PredCache in front of an sbst with range operations. The range operations
+     * are not cached, they are answered by the sbst.
+     */
+    public static class Range extends PredCache implements RangeSkewedBST {
+
+        private final RangeSkewedBST st;
+
+        /**
+         * Puts a cache in front of the given sbst.
+         * @param st the sbst answering the misses and the range operations.
+         * @param lines the size of the cache in 64 byte cache lines, rounded up to a power of 2.
+         */
+        public Range(RangeSkewedBST st, int lines){
+            super(st, lines);
+            this.st = st;
+        }
+
+        public int succ(int x){
+            return st.succ(x);
+        }
+
+        public int countInRange(int lo, int hi){
+            return st.countInRange(lo, hi);
+        }
+
+        public RangeCursor cursor(){
+            return st.cursor();
+        }
+    }
+}
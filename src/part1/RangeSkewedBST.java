@@ -0,0 +1,38 @@
+// Generated by template/specialize.sh from template/KeyRangeSkewedBST.java.tmpl, edit the template instead.
+package part1;
+
+/**
+ * The Skewed Binary Search Trees that can walk their layout in order, and so also
+ * answer successor and range queries over int keys. SortedArray, SearchTree
+ * and OtherArray are, the other layouts only answer pred.
+ */
+interface RangeSkewedBST extends SkewedBST{
+
+    /**
+     * Finds and returns the value y in the set such that y >= x.
+     * @param x the value to be queried.
+     * @return the value if there is one, if not NONE.
+     */
+    int succ(int x);
+
+    /**
+     * Counts the values in the set between lo and hi.
+     * @param lo the smallest value of the range, inclusive.
+     * @param hi the largest value of the range, inclusive.
+     * @return the number of values, 0 if lo > hi.
+     */
+    int countInRange(int lo, int hi);
+
+    /**
+     * @return a cursor over the ranges of the set, it should not be shared by threads.
+     */
+    RangeCursor cursor();
+
+    /**
+     * @return the version of the sbst that a run of queries should be answered from,
+     * which answers range queries too.
+     */
+    default RangeSkewedBST snapshot(){
+        return this;
+    }
+}
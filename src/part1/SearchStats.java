@@ -0,0 +1,111 @@
+package part1;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counts what the searches of a Skewed Binary Search Tree (sbst) do: the keys
+ * compared to each query, the nodes visited, the blocks touched and a histogram
+ * of the depth the searches end at. A block is what the layout moves through
+ * memory in, a p-block for OtherArray and a 64 byte cache line of the array for
+ * SortedArray and the van Emde Boas layout.
+ *
+ * Instrumentation is turned on by starting the JVM with -Dpart1.stats=true. The
+ * searches check ENABLED before anything else and answer through a separate
+ * counting search when it is set, so when it is not the JIT folds the check away
+ * and the search is the same code as without instrumentation.
+ *
+ * The counters can be updated by several threads at once.
+ */
+public class SearchStats implements SearchStatsMBean {
+
+    public static final boolean ENABLED = Boolean.getBoolean("part1.stats");
+    static final int DEPTHS = 64;
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder comparisons = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder blocks = new LongAdder();
+    private final AtomicLongArray depths = new AtomicLongArray(DEPTHS);
+
+    /**
+     * Records one query.
+     * @param comparisons the number of keys compared to the query.
+     * @param nodes the number of nodes visited.
+     * @param blocks the number of blocks touched.
+     */
+    void record(int comparisons, int nodes, int blocks){
+        queries.increment();
+        this.comparisons.add(comparisons);
+        this.nodes.add(nodes);
+        this.blocks.add(blocks);
+        depths.incrementAndGet(Math.min(nodes, DEPTHS - 1));
+    }
+
+    /**
+     * Registers the counters with the platform MBeanServer as
+     * part1:type=SearchStats,name=name, replacing the counters already registered
+     * under that name.
+     * @param name the name of the sbst.
+     * @return the name the counters are registered under.
+     * @throws JMException if the counters cannot be registered.
+     */
+    public ObjectName register(String name) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName on = new ObjectName("part1:type=SearchStats,name=" + ObjectName.quote(name));
+        if (server.isRegistered(on)) server.unregisterMBean(on);
+        server.registerMBean(this, on);
+        return on;
+    }
+
+    public long getQueries(){
+        return queries.sum();
+    }
+
+    public long getComparisons(){
+        return comparisons.sum();
+    }
+
+    public long getNodesVisited(){
+        return nodes.sum();
+    }
+
+    public long getBlocksTouched(){
+        return blocks.sum();
+    }
+
+    public long[] getDepthHistogram(){
+        long[] h = new long[DEPTHS];
+        for (int d = 0; d < DEPTHS; d++) {
+            h[d] = depths.get(d);
+        }
+        return h;
+    }
+
+    public double getMeanComparisons(){
+        return (double) getComparisons() / Math.max(1, getQueries());
+    }
+
+    public double getMeanNodesVisited(){
+        return (double) getNodesVisited() / Math.max(1, getQueries());
+    }
+
+    public double getMeanBlocksTouched(){
+        return (double) getBlocksTouched() / Math.max(1, getQueries());
+    }
+
+    public void reset(){
+        queries.reset();
+        comparisons.reset();
+        nodes.reset();
+        blocks.reset();
+        for (int d = 0; d < DEPTHS; d++) {
+            depths.set(d, 0);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package part1;
+
+/**
+ * The counters of a SearchStats as seen through JMX.
+ */
+public interface SearchStatsMBean {
+
+    /**
+     * @return the number of queries recorded.
+     */
+    long getQueries();
+
+    /**
+     * @return the number of keys compared to the queries.
+     */
+    long getComparisons();
+
+    /**
+     * @return the number of nodes visited by the queries.
+     */
+    long getNodesVisited();
+
+    /**
+     * @return the number of blocks touched by the queries.
+     */
+    long getBlocksTouched();
+
+    /**
+     * @return the number of queries that visited d nodes at index d, the last
+     * index also counts the queries that visited more.
+     */
+    long[] getDepthHistogram();
+
+    /**
+     * @return the mean number of keys compared to a query.
+     */
+    double getMeanComparisons();
+
+    /**
+     * @return the mean number of nodes visited by a query.
+     */
+    double getMeanNodesVisited();
+
+    /**
+     * @return the mean number of blocks touched by a query.
+     */
+    double getMeanBlocksTouched();
+
+    /**
+     * Sets all the counters back to 0.
+     */
+    void reset();
+}
@@ -1,8 +1,105 @@
+// Generated by template/specialize.sh from template/KeySkewedBST.java.tmpl, edit the template instead.
 package part1;
 
 /**
- * An interface to allow for easier testing.
+ * An interface to allow for easier testing, over int keys.
  */
 interface SkewedBST{
-    StringBuilder Pred(int x);
-}
\ No newline at end of file
+
+    /**
+     * Returned by pred when no value in the set is smaller than or equal to
+     * the query. If Integer.MIN_VALUE is in the set every query has a
+     * predecessor, so it is then a valid answer.
+     */
+    int NONE = Integer.MIN_VALUE;
+
+    /**
+     * Finds and returns the value y in the set such that y <= x.
+     * Allocates nothing.
+     * @param x the value to be queried.
+     * @return the value if there is one, if not NONE.
+     */
+    int pred(int x);
+
+    /**
+     * Answers pred for each of the queries.
+     * @param queries the values to be queried.
+     * @param out where the answer to queries[i] is written to out[i].
+     */
+    default void pred(int[] queries, int[] out){
+        pred(queries, out, 0, queries.length);
+    }
+
+    /**
+     * Answers pred for the queries from index from to index to. Only writes to
+     * that slice of out, so disjoint slices can be answered by different threads.
+     * @param queries the values to be queried.
+     * @param out where the answer to queries[i] is written to out[i].
+     * @param from the first query to answer, inclusive.
+     * @param to the last query to answer, exclusive.
+     */
+    void pred(int[] queries, int[] out, int from, int to);
+
+    /**
+     * Answers pred for the queries from index from to index to, which have to be
+     * sorted in increasing order. Structures that can move on from the answer to
+     * the previous query override this, otherwise each query is answered on its own.
+     * @param sorted the values to be queried, sorted.
+     * @param out where the answer to sorted[i] is written to out[i].
+     * @param from the first query to answer, inclusive.
+     * @param to the last query to answer, exclusive.
+     */
+    default void predSorted(int[] sorted, int[] out, int from, int to){
+        pred(sorted, out, from, to);
+    }
+
+    /**
+     * @return the smallest value in the set.
+     */
+    int min();
+
+    /**
+     * @return the name used for the sbst in the experiments.
+     */
+    default String name(){
+        return getClass().getName();
+    }
+
+    /**
+     * @return the version of the sbst that a run of queries should be answered from,
+     * so the answers are consistent with each other. The sbst itself unless it can
+     * be replaced while it is queried, like SnapshotIndex.
+     */
+    default SkewedBST snapshot(){
+        return this;
+    }
+
+    /**
+     * @return the counters of the searches, null if the sbst is not instrumented
+     * or SearchStats.ENABLED is not set.
+     */
+    default SearchStats stats(){
+        return null;
+    }
+
+    /**
+     * Finds and returns the value y in the set such that y <= x, as text.
+     * @param x the value to be queried.
+     * @return the value if it is in the set, if not "None".
+     */
+    default StringBuilder Pred(int x){
+        return appendPred(new StringBuilder(), x, pred(x));
+    }
+
+    /**
+     * Appends the answer to a query as text followed by a space.
+     * @param sb the StringBuilder to append to.
+     * @param x the value that was queried.
+     * @param y the answer given by pred.
+     * @return sb.
+     */
+    default StringBuilder appendPred(StringBuilder sb, int x, int y){
+        if (x < min()) return sb.append("None ");
+        return sb.append(y).append(' ');
+    }
+}
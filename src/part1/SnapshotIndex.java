@@ -0,0 +1,151 @@
+package part1;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Holds the current version of a Skewed Binary Search Tree (sbst) and swaps in new
+ * versions without stopping the queries. A new version is built from a copy of the
+ * new set on a background thread, and published by a single write of a volatile
+ * reference once it is completely built, so a query never sees a version that is
+ * being built.
+ *
+ * A query reads the reference once and answers from that snapshot, so queries that
+ * are running when a new version is published finish on the old one. The sbsts are
+ * read-only once built, so no query ever sees a torn answer. Nothing is freed by
+ * hand, the old snapshot is reclaimed by the garbage collector once the last query
+ * holding it has returned.
+ *
+ * The calls of this class each read the reference on their own. When the answers
+ * of several calls have to come from the same version, for example pred and min
+ * when formatting answers, take the snapshot once and call it instead.
+ */
+public class SnapshotIndex implements SkewedBST {
+
+    private final Function<int[], SkewedBST> builder;
+    private final ExecutorService rebuilder;
+    private volatile SkewedBST current;
+
+    /**
+     * Builds the first version on the calling thread.
+     * @param elems the elements of the first version, they are copied.
+     * @param builder builds an sbst from a set, e.g. elems -> new OtherArray(elems, 0.4, 21).
+     */
+    public SnapshotIndex(int[] elems, Function<int[], SkewedBST> builder){
+        this.builder = builder;
+        current = builder.apply(elems.clone());
+        rebuilder = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "SnapshotIndex rebuild");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Builds a version from the given set on the background thread and publishes it
+     * when it is built. Reloads are built one at a time in the order they are made,
+     * so the last reload made is the version that stays published.
+     * @param elems the elements of the new version, they are copied before this returns,
+     * so the caller may reuse the array.
+     * @return completes with the new version once it is published, or exceptionally if
+     * it could not be built, in which case the old version stays published.
+     */
+    public CompletableFuture<SkewedBST> reload(int[] elems){
+        int[] copy = elems.clone();
+        return CompletableFuture.supplyAsync(() -> {
+            SkewedBST next = builder.apply(copy);
+            current = next;
+            return next;
+        }, rebuilder);
+    }
+
+    /**
+     * @return the version published at the time of the call.
+     */
+    public SkewedBST snapshot(){
+        return current;
+    }
+
+    /**
+     * Stops the background thread once the reloads already made are published.
+     */
+    public void shutdown(){
+        rebuilder.shutdown();
+    }
+
+    public int pred(int x){
+        return current.pred(x);
+    }
+
+    /**
+     * Answers all the queries from index from to index to from the same version.
+     */
+    public void pred(int[] queries, int[] out, int from, int to){
+        current.pred(queries, out, from, to);
+    }
+
+    /**
+     * Answers all the sorted queries from the same version.
+     */
+    public void predSorted(int[] sorted, int[] out, int from, int to){
+        current.predSorted(sorted, out, from, to);
+    }
+
+    public int min(){
+        return current.min();
+    }
+
+    /**
+     * Formats the answer from a single version, unlike pred followed by min.
+     */
+    public StringBuilder Pred(int x){
+        SkewedBST st = current;
+        return st.appendPred(new StringBuilder(), x, st.pred(x));
+    }
+
+    public String name(){
+        return current.name() + "Snapshot";
+    }
+
+    /**
+     * A SnapshotIndex over sbsts with range operations, which are answered by the
+     * version published at the time of the call.
+     */
+    public static class Range extends SnapshotIndex implements RangeSkewedBST {
+
+        /**
+         * Builds the first version on the calling thread.
+         * @param elems the elements of the first version, they are copied.
+         * @param builder builds an sbst from a set, e.g. elems -> new OtherArray(elems, 0.4, 21).
+         */
+        public Range(int[] elems, Function<int[], RangeSkewedBST> builder){
+            super(elems, builder::apply);
+        }
+
+        /**
+         * @return the version published at the time of the call, every version is
+         * built by the builder given to the constructor.
+         */
+        public RangeSkewedBST snapshot(){
+            return (RangeSkewedBST) super.snapshot();
+        }
+
+        public int succ(int x){
+            return snapshot().succ(x);
+        }
+
+        public int countInRange(int lo, int hi){
+            return snapshot().countInRange(lo, hi);
+        }
+
+        /**
+         * @return a cursor over the version published at the time of the call, it keeps
+         * scanning that version after a reload.
+         */
+        public RangeCursor cursor(){
+            return snapshot().cursor();
+        }
+    }
+}
@@ -1,15 +1,31 @@
+// Generated by template/specialize.sh from template/KeySortedArray.java.tmpl, edit the template instead.
 package part1;
 
 import java.util.Arrays;
+import java.util.NoSuchElementException;
 
 /**
  * Implemetation of a Skewed Binary Search Tree that uses an array
- * to store the values.
+ * to store the values. The array is only read once built, so one
+ * SortedArray can be queried by several threads at once.
  */
-public class SortedArray implements SkewedBST {
+public class SortedArray implements RangeSkewedBST {
 
-    private static int[] S;
-    private double alpha;
+    final int[] S;
+    final double alpha;
+    private int batchSize = 1;
+
+    // the model of the learned search, start[b] is the first index of S in bucket b
+    private static final int LOCAL = 32;
+    private int[] start;
+    private int buckets;
+    private long base, range;
+    private int shift;
+
+    // the number of keys in a 64 byte line
+    private static final int LINE = 64 / Integer.BYTES;
+
+    private final SearchStats stats = SearchStats.ENABLED ? new SearchStats() : null;
 
     /**
      * Initializes an SortedArray, all building occurs in the constructor.
@@ -20,7 +36,7 @@ public class SortedArray implements SkewedBST {
      */
     public SortedArray(int[] elems, double alpha){
         S = elems;
-        Arrays.sort(S);
+        Arrays.parallelSort(S);
         this.alpha = alpha;
     }
 
@@ -29,18 +45,311 @@ public class SortedArray implements SkewedBST {
      * Worst case is O(log(n)), best case is O(1) if x is outside 
      * the range of the set (not considering memory).
      * @param x the value to be queried.
-     * @return the value if it is in the set, if not "None".
+     * @return the value if there is one, if not NONE.
      */
-    public StringBuilder Pred(int x){
-        return SBS(x);
+    public int pred(int x){
+        return start == null ? SBS(x) : modelSearch(x);
     }
 
     /**
-     * The Skewed Binary search performed by Pred.
+     * Answers pred for the queries from index from to index to. If the model is used
+     * the queries are answered one at a time by it, otherwise if the batch size is
+     * larger than 1 the queries are answered in batches of that size by SBSBatch.
+     * @param queries the values to be queried.
+     * @param out where the answer to queries[i] is written to out[i].
+     * @param from the first query to answer, inclusive.
+     * @param to the last query to answer, exclusive.
+     */
+    public void pred(int[] queries, int[] out, int from, int to){
+        if (start != null) {
+            for (int i = from; i < to; i++) {
+                out[i] = modelSearch(queries[i]);
+            }
+            return;
+        }
+        if (batchSize == 1) {
+            for (int i = from; i < to; i++) {
+                out[i] = SBS(queries[i]);
+            }
+            return;
+        }
+        int[] lo = new int[batchSize];
+        int[] hi = new int[batchSize];
+        for (int i = from; i < to; i += batchSize) {
+            SBSBatch(queries, out, i, Math.min(i + batchSize, to), lo, hi);
+        }
+    }
+
+    /**
+     * Sets how many queries the bulk pred moves through the search in lockstep.
+     * @param batchSize the number of queries in a batch, 1 answers them one at a time.
+     */
+    public void setBatchSize(int batchSize){
+        if (batchSize < 1) throw new IllegalArgumentException("batchSize has to be larger than 0");
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Trains a piecewise-linear model of the keys that pred uses instead of SBS.
+     * The range [S[0], S[n-1]] is split into buckets of equal width and the model
+     * stores where each bucket starts in S, which takes 4 bytes per bucket. A query
+     * then only has to search its own bucket, by interpolating between the keys at
+     * its ends when it is small and by SBS restricted to the bucket when it is not.
+     * @param buckets the number of buckets, about n/16 suits close to uniform keys,
+     * 0 goes back to SBS.
+     */
+    public void useModel(int buckets){
+        if (buckets < 0) throw new IllegalArgumentException("buckets can not be negative");
+        if (buckets == 0) {
+            start = null;
+            return;
+        }
+        // keeps ((x - S[0]) >>> shift) * buckets below 2^62
+        buckets = Math.min(buckets, 1 << 30);
+        this.buckets = buckets;
+        base = S[0];
+        long span = S[S.length - 1] - base;
+        shift = Math.max(32 - Long.numberOfLeadingZeros(span), 0);
+        range = (span >>> shift) + 1;
+        int[] st = new int[buckets + 1];
+        int b = 0;
+        for (int i = 0; i < S.length; i++) {
+            int bi = bucket(S[i]);
+            while (b <= bi) st[b++] = i;
+        }
+        while (b <= buckets) st[b++] = S.length;
+        start = st;
+    }
+
+    /**
+     * The distance from S[0] is read as unsigned, so it is exact for long keys too,
+     * and it is shifted right until it fits in 32 bits, which it always does for int keys.
+     * @param x a value with S[0] <= x <= S[n-1].
+     * @return the bucket of x, the bucket never decreases as x grows.
+     */
+    private int bucket(int x){
+        return (int)(((x - base) >>> shift) * buckets / range);
+    }
+
+    /**
+     * The learned search performed by pred when the model is used. Every key in
+     * an earlier bucket is smaller than x and every key in a later bucket is
+     * larger, so the answer lies between the key before the bucket of x and the
+     * last key of it. The bound is exact, a bad guess only costs a longer scan,
+     * and a bucket larger than LOCAL falls back to SBS over the bucket.
      * @param x the value to be queried.
-     * @return the value if it is in the set, if not "None".
+     * @return the value if there is one, if not NONE.
      */
-    private StringBuilder SBS(int x){
+    private int modelSearch(int x){
+        int[] S = this.S;
+        int last = S.length - 1;
+        if (x < S[0]) return NONE;
+        if (x >= S[last]) return S[last];
+
+        int b = bucket(x);
+        int lo = Math.max(start[b] - 1, 0);
+        int hi = start[b + 1] - 1;
+        if (hi - lo > LOCAL) {
+            while (lo <= hi) {
+                int mid = (int)(lo + (hi - lo) * alpha);
+                if (x < S[mid]) hi = mid - 1;
+                else lo = mid + 1;
+            }
+            return S[hi];
+        }
+
+        int g = guess(x, lo, hi);
+        while (S[g] > x) g--;
+        while (g < hi && S[g + 1] <= x) g++;
+        return S[g];
+    }
+
+    /**
+     * Interpolates the position of x between S[lo] and S[hi].
+     * @param x the value to be queried, S[lo] <= x.
+     * @return a position in [lo, hi].
+     */
+    private int guess(int x, int lo, int hi){
+        long kl = S[lo], kh = S[hi];
+        long span = (kh - kl) >>> shift;
+        if (span == 0) return lo;
+        long g = lo + ((x - kl) >>> shift) * (hi - lo) / span;
+        return (int) Math.min(g, hi);
+    }
+
+    /**
+     * Counts the keys of S that pred compares x to, with the model if it is used
+     * and with SBS if not. Only meant for the experiments, it repeats the search
+     * instead of slowing pred down with a counter.
+     * @param x the value to be queried.
+     * @return the number of keys compared to x.
+     */
+    int probes(int x){
+        int last = S.length - 1;
+        if (x < S[0]) return 1;
+        if (x >= S[last]) return 2;
+        int probes = 2;
+        int lo = 0, hi = last;
+        if (start == null) {
+            while (lo <= hi) {
+                int mid = (int)(lo + (hi - lo) * alpha);
+                probes++;
+                if      (x < S[mid]) hi = mid - 1;
+                else if (x > S[mid]) lo = mid + 1;
+                else break;
+            }
+            return probes;
+        }
+
+        int b = bucket(x);
+        lo = Math.max(start[b] - 1, 0);
+        hi = start[b + 1] - 1;
+        if (hi - lo > LOCAL) {
+            while (lo <= hi) {
+                int mid = (int)(lo + (hi - lo) * alpha);
+                probes++;
+                if (x < S[mid]) hi = mid - 1;
+                else lo = mid + 1;
+            }
+            return probes;
+        }
+        int g = guess(x, lo, hi);
+        probes += 3;
+        while (S[g] > x) { g--; probes++; }
+        while (g < hi && S[g + 1] <= x) { g++; probes++; }
+        return g < hi ? probes + 1 : probes;
+    }
+
+    /**
+     * Answers pred for sorted queries in one pass over S. Each query gallops
+     * forward from the answer to the previous query and then binary searches
+     * the last step, so q queries take O(q log(n/q + 1)) time and walk S
+     * from left to right.
+     * @param sorted the values to be queried, sorted.
+     * @param out where the answer to sorted[i] is written to out[i].
+     * @param from the first query to answer, inclusive.
+     * @param to the last query to answer, exclusive.
+     */
+    public void predSorted(int[] sorted, int[] out, int from, int to){
+        int last = S.length - 1;
+        int i = 0;
+        for (int j = from; j < to; j++) {
+            int x = sorted[j];
+            if (x < S[0]) { out[j] = NONE; continue; }
+            if (x >= S[last]) { out[j] = S[last]; continue; }
+
+            // S[lo] <= x < S[hi]
+            int lo = i, hi = i + 1, step = 1;
+            while (S[hi] <= x) {
+                lo = hi;
+                step <<= 1;
+                hi = Math.min(lo + step, last);
+            }
+            while (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                if (S[mid] <= x) lo = mid;
+                else hi = mid;
+            }
+            i = lo;
+            out[j] = S[lo];
+        }
+    }
+
+    /**
+     * @return the smallest value in the set.
+     */
+    public int min(){
+        return S[0];
+    }
+
+    /**
+     * Finds and returns the value y in the set such that y >= x.
+     * @param x the value to be queried.
+     * @return the value if there is one, if not NONE.
+     */
+    public int succ(int x){
+        int i = below(x);
+        return i < S.length ? S[i] : NONE;
+    }
+
+    /**
+     * Counts the values in the set between lo and hi.
+     * @param lo the smallest value of the range, inclusive.
+     * @param hi the largest value of the range, inclusive.
+     * @return the number of values, 0 if lo > hi.
+     */
+    public int countInRange(int lo, int hi){
+        if (lo > hi) return 0;
+        return atMost(hi) - below(lo);
+    }
+
+    /**
+     * @return a cursor over the ranges of S, it should not be shared by threads.
+     */
+    public RangeCursor cursor(){
+        return new RangeCursor() {
+            private int i, end;
+
+            public void seek(int lo, int hi){
+                i = below(lo);
+                end = lo > hi ? i : atMost(hi);
+            }
+
+            public boolean hasNext(){
+                return i < end;
+            }
+
+            public int next(){
+                if (i >= end) throw new NoSuchElementException();
+                return S[i++];
+            }
+        };
+    }
+
+    /**
+     * The skewed binary search of SBS, going left on equality.
+     * @return the number of values smaller than x, the index of the first value >= x.
+     */
+    private int below(int x){
+        int lo = 0;
+        int hi = S.length - 1;
+        while (lo <= hi) {
+            int mid = (int)(lo + (hi - lo) * alpha);
+            if (S[mid] < x) lo = mid + 1;
+            else hi = mid - 1;
+        }
+        return lo;
+    }
+
+    /**
+     * The skewed binary search of SBS, going right on equality.
+     * @return the number of values smaller than or equal to x.
+     */
+    private int atMost(int x){
+        int lo = 0;
+        int hi = S.length - 1;
+        while (lo <= hi) {
+            int mid = (int)(lo + (hi - lo) * alpha);
+            if (x < S[mid]) hi = mid - 1;
+            else lo = mid + 1;
+        }
+        return lo;
+    }
+
+    /**
+     * @return the counters of SBS, the model and batches are not counted.
+     */
+    public SearchStats stats(){
+        return stats;
+    }
+
+    /**
+     * The Skewed Binary search performed by pred.
+     * @param x the value to be queried.
+     * @return the value if there is one, if not NONE.
+     */
+    private int SBS(int x){
+        if (SearchStats.ENABLED) return tracedSBS(x);
         int lo = 0;
         int hi = S.length - 1;
 
@@ -49,27 +358,117 @@ public class SortedArray implements SkewedBST {
                 int mid = (int)(lo + (hi - lo) * alpha);
                 
                 if (lo > hi) {
-                    return new StringBuilder(S[mid] + " ");
+                    return S[mid];
                 }
 
                 if      (x < S[mid]) hi = mid - 1;
                 else if (x > S[mid]) lo = mid + 1;
                 
                 else {
-                    return new StringBuilder(S[mid] + " ");
+                    return S[mid];
                 }
             }
         } else if (x > S[S.length - 1]){
-            return new StringBuilder(S[S.length - 1] + " ");
+            return S[S.length - 1];
+        } else {
+            return NONE;
+        }
+    }
+
+    /**
+     * SBS that also records the query in stats. A block is a 64 byte line of S, LINE keys.
+     * @param x the value to be queried.
+     * @return the value if there is one, if not NONE.
+     */
+    private int tracedSBS(int x){
+        int last = S.length - 1;
+        int comparisons = 2, nodes = 0, lines = 0, line = -1;
+        int y;
+        if (x < S[0]) {
+            comparisons = 1;
+            y = NONE;
+        } else if (x > S[last]) {
+            y = S[last];
         } else {
-            return new StringBuilder("None ");
+            int lo = 0;
+            int hi = last;
+            while (true) {
+                int mid = (int)(lo + (hi - lo) * alpha);
+                if (lo > hi) {
+                    y = S[mid];
+                    break;
+                }
+                nodes++;
+                if (mid / LINE != line) {
+                    line = mid / LINE;
+                    lines++;
+                }
+                comparisons++;
+                if (x < S[mid]) {
+                    hi = mid - 1;
+                    continue;
+                }
+                comparisons++;
+                if (x > S[mid]) lo = mid + 1;
+                else {
+                    y = S[mid];
+                    break;
+                }
+            }
+        }
+        stats.record(comparisons, nodes, lines);
+        return y;
+    }
+
+    /**
+     * The Skewed Binary search performed on a batch of queries at once. Each round
+     * takes one step of the search for every query that is not done, so the loads of
+     * the different queries are independent and their cache misses can overlap.
+     * A query keeps going right on equality, so it is done when lo > hi and the
+     * answer is then S[hi].
+     * @param queries the values to be queried.
+     * @param out where the answer to queries[i] is written to out[i].
+     * @param from the first query of the batch, inclusive.
+     * @param to the last query of the batch, exclusive.
+     * @param lo the lowest index of each query in the batch.
+     * @param hi the highest index of each query in the batch.
+     */
+    private void SBSBatch(int[] queries, int[] out, int from, int to, int[] lo, int[] hi){
+        int[] S = this.S;
+        int last = S.length - 1;
+        int g = to - from;
+        for (int j = 0; j < g; j++) {
+            int x = queries[from + j];
+            if (x < S[0]) { lo[j] = 0; hi[j] = -1; }
+            else if (x >= S[last]) { lo[j] = last + 1; hi[j] = last; }
+            else { lo[j] = 0; hi[j] = last; }
+        }
+
+        boolean active = true;
+        while (active) {
+            active = false;
+            for (int j = 0; j < g; j++) {
+                int l = lo[j], h = hi[j];
+                if (l > h) continue;
+                int mid = (int)(l + (h - l) * alpha);
+                if (queries[from + j] < S[mid]) hi[j] = mid - 1;
+                else lo[j] = mid + 1;
+                active = true;
+            }
+        }
+
+        for (int j = 0; j < g; j++) {
+            out[from + j] = hi[j] < 0 ? NONE : S[hi[j]];
         }
     }
 
     public static void main(String[] args) {      
         double alpha = 0.4;
+        int batchSize = 16;
+        int threads = Runtime.getRuntime().availableProcessors();
         InputReader.readInt();
         SortedArray st = new SortedArray(InputReader.readElems(), alpha);
-        InputReader.runOp(st);
+        st.setBatchSize(batchSize);
+        InputReader.runOp(st, threads);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,72 @@
+package part1;
+
+import java.util.Arrays;
+
+/**
+ * Answers a batch of queries that may be reordered. The queries are radix sorted
+ * together with their original positions, answered in increasing order with
+ * predSorted, which lets a structure move on from the previous answer instead of
+ * starting over from the root, and then scattered back to the original order.
+ */
+public class SortedBatch {
+
+    /**
+     * Answers pred for each of the queries, the answers are in the same order as the queries.
+     * @param st the sbst to be queried.
+     * @param queries the values to be queried.
+     * @param out where the answer to queries[i] is written to out[i].
+     */
+    public static void pred(SkewedBST st, int[] queries, int[] out){
+        int q = queries.length;
+        int[] sorted = new int[q];
+        int[] perm = new int[q];
+        int[] answers = new int[q];
+        sort(queries, sorted, perm, answers);
+        st.predSorted(sorted, answers, 0, q);
+        for (int i = 0; i < q; i++) {
+            out[perm[i]] = answers[i];
+        }
+    }
+
+    /**
+     * LSD radix sort on 8 bits at a time, with the sign bit flipped so negative
+     * values come first. The sort is stable, so the positions of equal queries
+     * stay in order.
+     * @param queries the values to be sorted, left unchanged.
+     * @param sorted where the sorted values are written.
+     * @param perm where the original position of sorted[i] is written to perm[i].
+     * @param tmp scratch space of the same length.
+     */
+    static void sort(int[] queries, int[] sorted, int[] perm, int[] tmp){
+        int q = queries.length;
+        int[] tmpPerm = new int[q];
+        int[] keys = sorted, idx = perm;
+        for (int i = 0; i < q; i++) {
+            keys[i] = queries[i];
+            idx[i] = i;
+        }
+        int[] otherKeys = tmp, otherIdx = tmpPerm;
+        int[] count = new int[257];
+        for (int shift = 0; shift < 32; shift += 8) {
+            Arrays.fill(count, 0);
+            for (int i = 0; i < q; i++) {
+                count[digit(keys[i], shift) + 1]++;
+            }
+            for (int d = 0; d < 256; d++) {
+                count[d + 1] += count[d];
+            }
+            for (int i = 0; i < q; i++) {
+                int to = count[digit(keys[i], shift)]++;
+                otherKeys[to] = keys[i];
+                otherIdx[to] = idx[i];
+            }
+            int[] t = keys; keys = otherKeys; otherKeys = t;
+            t = idx; idx = otherIdx; otherIdx = t;
+        }
+        // an even number of passes leaves the result in sorted and perm
+    }
+
+    private static int digit(int x, int shift){
+        return ((x ^ Integer.MIN_VALUE) >>> shift) & 0xFF;
+    }
+}
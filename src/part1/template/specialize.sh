@@ -0,0 +1,43 @@
+#!/bin/bash
+
+# Generates the int and the long key versions of the part1 structures from the
+# templates in this directory, so both are changed in one place. In a template
+#   ${key}   is replaced by the primitive type, int or long,
+#   ${Box}   by its wrapper class, Integer or Long,
+#   ${Kind}  by the capitalized type, as in IntBuffer or LongBuffer,
+#   ${Type}  by the prefix of the class names, empty for int and Long for long,
+#   ${toInt} by the cast of a key to an index, empty for int and (int) for long.
+# The lines between //#if int (or long) and //#endif are only kept in that
+# version, and the lines between //#else and //#endif only in the other.
+# Run from anywhere, the generated sources are written next to the other part1 sources.
+
+DIR=$(cd "$(dirname "$0")" && pwd)
+OUT="$DIR/.."
+
+# specialize template key Box Kind Type toInt
+specialize(){
+    local tmpl=$1 name
+    name=$(basename "$tmpl" .java.tmpl)
+    local out="$OUT/$5${name#Key}.java"
+    awk -v src="$(basename "$tmpl")" -v key="$2" '
+        NR == 1 {
+            cr = /\r$/ ? "\r" : ""
+            print "// Generated by template/specialize.sh from template/" src ", edit the template instead." cr
+        }
+        {
+            line = $0
+            sub(/\r$/, "", line)
+        }
+        line ~ /^[ \t]*\/\/#if / { n = split(line, w, " "); skip = w[n] != key; next }
+        line ~ /^[ \t]*\/\/#else$/ { skip = !skip; next }
+        line ~ /^[ \t]*\/\/#endif$/ { skip = 0; next }
+        !skip { print }
+    ' "$tmpl" | sed -e "s/\${key}/$2/g" -e "s/\${Box}/$3/g" -e "s/\${Kind}/$4/g" \
+                    -e "s/\${Type}/$5/g" -e "s/\${toInt}/$6/g" > "$out"
+    echo "wrote $out"
+}
+
+for tmpl in "$DIR"/Key*.java.tmpl; do
+    specialize "$tmpl" int Integer Int "" ""
+    specialize "$tmpl" long Long Long Long "(int) "
+done